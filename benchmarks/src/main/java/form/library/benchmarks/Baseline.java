@@ -0,0 +1,26 @@
+package form.library.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs benchmarks with the GC profiler and stores results as JSON,
+ * so ops/s and gc.alloc.rate.norm (bytes per operation) of two builds can be compared.
+ * Accepts the usual JMH command line, e.g. a benchmark regexp or -p size=10000.
+ */
+public class Baseline {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        var options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("baseline.json")
+                .build();
+        new Runner(options).run();
+    }
+}
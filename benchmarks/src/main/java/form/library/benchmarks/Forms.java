@@ -0,0 +1,140 @@
+package form.library.benchmarks;
+
+import form.library.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Object shapes used by the benchmarks.
+ * Every factory builds either a completely valid or a completely invalid object.
+ */
+final class Forms {
+    private Forms() { }
+
+    @Constrained
+    static class Person {
+        @NotNull
+        @NotBlank
+        private final String firstName;
+        @NotNull
+        @Size(min = 1, max = 32)
+        private final String lastName;
+        @InRange(min = 0, max = 150)
+        private final int age;
+        @AnyOf({"Pfizer", "Sputnik", "CoronaVac", "Moderna"})
+        private final String vaccine;
+        @Positive
+        private final long doses;
+        @Negative
+        private final Integer offset;
+        @NotEmpty
+        private final Map<String, String> contacts;
+
+        Person(String firstName, String lastName, int age, String vaccine, long doses, Integer offset, Map<String, String> contacts) {
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.age = age;
+            this.vaccine = vaccine;
+            this.doses = doses;
+            this.offset = offset;
+            this.contacts = contacts;
+        }
+    }
+
+    @Constrained
+    static class Telemetry {
+        @Positive
+        private final long timestamp;
+        @InRange(min = -50, max = 150)
+        private final double temperature;
+        @InRange(min = 0, max = 100)
+        private final int humidity;
+        @Positive
+        private final short sensor;
+        @Negative
+        private final int drift;
+
+        Telemetry(long timestamp, double temperature, int humidity, short sensor, int drift) {
+            this.timestamp = timestamp;
+            this.temperature = temperature;
+            this.humidity = humidity;
+            this.sensor = sensor;
+            this.drift = drift;
+        }
+    }
+
+    @Constrained
+    static class Node {
+        @NotBlank
+        private final String name;
+        @Positive
+        private final int weight;
+        private final Node child;
+
+        Node(String name, int weight, Node child) {
+            this.name = name;
+            this.weight = weight;
+            this.child = child;
+        }
+    }
+
+    @Constrained
+    static class Import {
+        @NotNull
+        @NotEmpty
+        private final List<@NotNull Person> people;
+
+        Import(List<Person> people) {
+            this.people = people;
+        }
+    }
+
+    @Constrained
+    static class Matrix {
+        @NotEmpty
+        private final List<@Size(min = 1, max = 1000) List<@Positive Integer>> rows;
+
+        Matrix(List<List<Integer>> rows) {
+            this.rows = rows;
+        }
+    }
+
+    static Person person(boolean valid) {
+        if (valid)
+            return new Person("John", "Snow", 40, "Sputnik", 2, -1, Map.of("email", "john@snow.org"));
+        return new Person(" ", "", 200, "Unknown", 0, 1, Map.of());
+    }
+
+    static Telemetry telemetry(boolean valid) {
+        if (valid)
+            return new Telemetry(1_600_000_000_000L, 21.5, 40, (short) 7, -3);
+        return new Telemetry(0, 150.5, 101, (short) 0, 3);
+    }
+
+    static Node chain(int depth, boolean valid) {
+        Node node = null;
+        for (int i = 0; i < depth; ++i)
+            node = valid ? new Node("node", i + 1, node) : new Node("", -i, node);
+        return node;
+    }
+
+    static Import people(int size, boolean valid) {
+        var people = new ArrayList<Person>(size);
+        for (int i = 0; i < size; ++i)
+            people.add(person(valid));
+        return new Import(people);
+    }
+
+    static Matrix matrix(int rows, int columns, boolean valid) {
+        var matrix = new ArrayList<List<Integer>>(rows);
+        for (int i = 0; i < rows; ++i) {
+            var row = new ArrayList<Integer>(columns);
+            for (int j = 0; j < columns; ++j)
+                row.add(valid ? j + 1 : -j);
+            matrix.add(row);
+        }
+        return new Matrix(matrix);
+    }
+}
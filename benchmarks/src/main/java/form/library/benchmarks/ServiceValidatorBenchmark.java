@@ -0,0 +1,119 @@
+package form.library.benchmarks;
+
+import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationOptions;
+import form.library.services.ServiceValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of ServiceValidator.validate on typical object shapes.
+ * Run with the GC profiler (see Baseline) to get bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+public class ServiceValidatorBenchmark {
+    private static final ServiceValidator validator = ServiceValidator.getInstance();
+    private static final ValidationOptions parallel = ValidationOptions.builder().parallel(10000).build();
+
+    @State(Scope.Benchmark)
+    public static class FlatForm {
+        @Param({"true", "false"})
+        boolean valid;
+        Object form;
+
+        @Setup
+        public void setUp() {
+            form = Forms.person(valid);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class NumericForm {
+        @Param({"true", "false"})
+        boolean valid;
+        Object form;
+
+        @Setup
+        public void setUp() {
+            form = Forms.telemetry(valid);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class NestedGraph {
+        @Param({"true", "false"})
+        boolean valid;
+        @Param({"8", "64", "512"})
+        int depth;
+        Object form;
+
+        @Setup
+        public void setUp() {
+            form = Forms.chain(depth, valid);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LargeList {
+        @Param({"true", "false"})
+        boolean valid;
+        @Param({"10000", "100000", "1000000"})
+        int size;
+        Object form;
+
+        @Setup
+        public void setUp() {
+            form = Forms.people(size, valid);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class NestedLists {
+        @Param({"true", "false"})
+        boolean valid;
+        @Param({"100", "1000"})
+        int rows;
+        Object form;
+
+        @Setup
+        public void setUp() {
+            form = Forms.matrix(rows, 100, valid);
+        }
+    }
+
+    @Benchmark
+    public Set<ValidationError> flatForm(FlatForm state) {
+        return validator.validate(state.form);
+    }
+
+    @Benchmark
+    public Set<ValidationError> numericForm(NumericForm state) {
+        return validator.validate(state.form);
+    }
+
+    @Benchmark
+    public Set<ValidationError> nestedGraph(NestedGraph state) {
+        return validator.validate(state.form);
+    }
+
+    @Benchmark
+    public Set<ValidationError> largeList(LargeList state) {
+        return validator.validate(state.form);
+    }
+
+    @Benchmark
+    public Set<ValidationError> largeListParallel(LargeList state) {
+        return validator.validate(state.form, parallel);
+    }
+
+    @Benchmark
+    public Set<ValidationError> nestedLists(NestedLists state) {
+        return validator.validate(state.form);
+    }
+}
@@ -0,0 +1,50 @@
+package form.library.benchmarks;
+
+import form.library.interfaces.ValidationError;
+import form.library.services.ServiceValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fields specialized in hidden classes compared with the loop over field plans.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SpecializationBenchmark {
+    @Param({"true", "false"})
+    boolean specialized;
+    @Param({"true", "false"})
+    boolean valid;
+
+    ServiceValidator validator;
+    Object person, telemetry, chain;
+
+    @Setup
+    public void setUp() {
+        validator = ServiceValidator.builder().specialized(specialized).build();
+        person = Forms.person(valid);
+        telemetry = Forms.telemetry(valid);
+        chain = Forms.chain(64, valid);
+    }
+
+    @Benchmark
+    public Set<ValidationError> flatForm() {
+        return validator.validate(person);
+    }
+
+    @Benchmark
+    public Set<ValidationError> numericForm() {
+        return validator.validate(telemetry);
+    }
+
+    @Benchmark
+    public Set<ValidationError> nestedGraph() {
+        return validator.validate(chain);
+    }
+}
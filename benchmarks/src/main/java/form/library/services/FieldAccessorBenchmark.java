@@ -0,0 +1,83 @@
+package form.library.services;
+
+import form.library.annotations.Constrained;
+import form.library.annotations.NotBlank;
+import form.library.annotations.Positive;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares field reads through FieldAccessor with the old Field.get path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FieldAccessorBenchmark {
+
+    @Constrained
+    static class Person {
+        @NotBlank
+        private final String name;
+        @Positive
+        private final int age;
+
+        Person(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+    }
+
+    @Constrained
+    record Vaccination(@NotBlank String vaccine, @Positive int dose) { }
+
+    private Person person;
+    private Vaccination vaccination;
+
+    private Field nameField, ageField, doseField;
+    private FieldAccessor nameAccessor, ageAccessor, doseAccessor;
+
+    @Setup
+    public void setUp() throws NoSuchFieldException {
+        person = new Person("John", 40);
+        vaccination = new Vaccination("Sputnik", 2);
+
+        nameField = Person.class.getDeclaredField("name");
+        ageField = Person.class.getDeclaredField("age");
+        doseField = Vaccination.class.getDeclaredField("dose");
+        nameField.setAccessible(true);
+        ageField.setAccessible(true);
+        doseField.setAccessible(true);
+
+        nameAccessor = FieldAccessor.of(nameField);
+        ageAccessor = FieldAccessor.of(ageField);
+        doseAccessor = FieldAccessor.of(doseField);
+    }
+
+    @Benchmark
+    public void fieldGet(Blackhole blackhole) throws IllegalAccessException {
+        blackhole.consume(nameField.get(person));
+        blackhole.consume(ageField.get(person));
+    }
+
+    @Benchmark
+    public void accessor(Blackhole blackhole) {
+        blackhole.consume(nameAccessor.get(person));
+        blackhole.consume(ageAccessor.get(person));
+    }
+
+    @Benchmark
+    public Object recordFieldGet() throws IllegalAccessException {
+        return doseField.get(vaccination);
+    }
+
+    @Benchmark
+    public Object recordAccessor() {
+        return doseAccessor.get(vaccination);
+    }
+}
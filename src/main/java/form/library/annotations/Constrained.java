@@ -8,5 +8,9 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
 public @interface Constrained {
-
+    /**
+     * @return whether instances never change after construction, so their validation results can be cached.
+     * Records are treated as immutable if their components are primitives, value types like String or immutable classes.
+     */
+    boolean immutable() default false;
 }
@@ -0,0 +1,23 @@
+package form.library.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Whole string must match regular expression.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE_USE)
+public @interface Pattern {
+    /**
+     * @return regular expression in syntax of java.util.regex.Pattern.
+     */
+    String value();
+
+    /**
+     * @return flags of java.util.regex.Pattern, e.g. Pattern.CASE_INSENSITIVE.
+     */
+    int flags() default 0;
+}
@@ -4,4 +4,18 @@ public interface ValidationError {
     String getMessage();
     String getPath();
     Object getFailedValue();
+
+    /**
+     * @return structured path of the value, null if it is unknown or the value is the validated object.
+     */
+    default ValidationPath getPropertyPath() {
+        return null;
+    }
+
+    /**
+     * @return code of violated constraint, e.g. "Size.String", or null if error has only message.
+     */
+    default String getCode() {
+        return null;
+    }
 }
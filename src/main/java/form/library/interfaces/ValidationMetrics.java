@@ -0,0 +1,28 @@
+package form.library.interfaces;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Receiver of measurements of validation, e.g. an adapter to a metrics registry.
+ * Measurements are reported only by validators built with metrics,
+ * validators without them aren't instrumented at all.
+ * Methods are called concurrently from validating threads, so they should be fast and thread-safe.
+ */
+public interface ValidationMetrics {
+    /**
+     * Records validation of one object and everything reachable from it.
+     * @param type class of validated object.
+     * @param nanos duration of validation in nanoseconds.
+     * @param errors number of found errors.
+     */
+    void recordValidation(Class<?> type, long nanos, int errors);
+
+    /**
+     * Records one check of a constraint.
+     * @param constraint annotation type of the constraint.
+     * @param validator class of validator which checked the value.
+     * @param nanos duration of check in nanoseconds.
+     * @param failed whether value violated the constraint.
+     */
+    void recordConstraint(Class<? extends Annotation> constraint, Class<?> validator, long nanos, boolean failed);
+}
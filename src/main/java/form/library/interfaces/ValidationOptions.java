@@ -0,0 +1,141 @@
+package form.library.interfaces;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Immutable options of one validation run.
+ */
+public final class ValidationOptions {
+    private static final ValidationOptions DEFAULTS = builder().build();
+
+    private final int maxErrors;
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
+    private final boolean reportSharedAtAllPaths;
+
+    private ValidationOptions(Builder builder) {
+        this.maxErrors = builder.maxErrors;
+        this.parallelThreshold = builder.parallelThreshold;
+        this.pool = builder.pool;
+        this.reportSharedAtAllPaths = builder.reportSharedAtAllPaths;
+    }
+
+    /**
+     * Options which collect every error of the object.
+     * @return default options.
+     */
+    public static ValidationOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Options which stop validation on the first error.
+     * @return fail-fast options.
+     */
+    public static ValidationOptions failFast() {
+        return builder().maxErrors(1).build();
+    }
+
+    /**
+     * Options which stop validation when specified number of errors is found.
+     * @param maxErrors maximal number of errors.
+     * @return options with error budget.
+     */
+    public static ValidationOptions maxErrors(int maxErrors) {
+        return builder().maxErrors(maxErrors).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return maximal number of collected errors, Integer.MAX_VALUE if it is unlimited.
+     */
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    /**
+     * @return minimal size of list which is validated in parallel, Integer.MAX_VALUE if parallel mode is off.
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * @return pool for parallel validation of lists.
+     */
+    public ForkJoinPool getPool() {
+        return pool != null ? pool : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * @return whether errors of an object referenced from several places are reported under every path.
+     */
+    public boolean isReportSharedAtAllPaths() {
+        return reportSharedAtAllPaths;
+    }
+
+    public static final class Builder {
+        private int maxErrors = Integer.MAX_VALUE;
+        private int parallelThreshold = Integer.MAX_VALUE;
+        private ForkJoinPool pool;
+        private boolean reportSharedAtAllPaths;
+
+        private Builder() { }
+
+        /**
+         * Sets number of errors after which validation stops.
+         * @param maxErrors positive number of errors.
+         * @return this builder.
+         */
+        public Builder maxErrors(int maxErrors) {
+            if (maxErrors <= 0)
+                throw new IllegalArgumentException("maxErrors should be positive: " + maxErrors);
+            this.maxErrors = maxErrors;
+            return this;
+        }
+
+        /**
+         * Enables parallel validation of large RandomAccess lists in the common pool.
+         * Errors are still reported in index order.
+         * @param threshold minimal size of list which is split between threads.
+         * @return this builder.
+         */
+        public Builder parallel(int threshold) {
+            return parallel(threshold, null);
+        }
+
+        /**
+         * Enables parallel validation of large RandomAccess lists in specified pool.
+         * Errors are still reported in index order.
+         * @param threshold minimal size of list which is split between threads.
+         * @param pool pool which runs validation or null for the common pool.
+         * @return this builder.
+         */
+        public Builder parallel(int threshold, ForkJoinPool pool) {
+            if (threshold <= 0)
+                throw new IllegalArgumentException("threshold should be positive: " + threshold);
+            this.parallelThreshold = threshold;
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Sets how errors of @Constrained objects referenced from several places are reported.
+         * Every object is validated once; by default its errors are reported only under the first path,
+         * otherwise they are repeated under every other path except cyclic references.
+         * @param reportSharedAtAllPaths whether errors are repeated under every path.
+         * @return this builder.
+         */
+        public Builder reportSharedAtAllPaths(boolean reportSharedAtAllPaths) {
+            this.reportSharedAtAllPaths = reportSharedAtAllPaths;
+            return this;
+        }
+
+        public ValidationOptions build() {
+            return new ValidationOptions(this);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package form.library.interfaces;
+
+/**
+ * Structured path to a validated value.
+ * Every path is the last segment, which is either a field name,
+ * an element index or a map key, linked to the path of its parent.
+ */
+public interface ValidationPath {
+    /**
+     * @return path of the parent value or null for fields of the validated object.
+     */
+    ValidationPath getParent();
+
+    /**
+     * @return name of the field or null if segment is an index or a key.
+     */
+    String getName();
+
+    /**
+     * @return index of the element or -1 if segment is a field or a key.
+     */
+    int getIndex();
+
+    /**
+     * @return key of the map value or null if segment is a field or an index.
+     */
+    default Object getKey() {
+        return null;
+    }
+
+    /**
+     * @return true if segment is an index of element.
+     */
+    default boolean isIndex() {
+        return getName() == null && !isKey();
+    }
+
+    /**
+     * @return true if segment is a key of map value.
+     */
+    default boolean isKey() {
+        return false;
+    }
+}
@@ -4,4 +4,14 @@ import java.util.Set;
 
 public interface Validator {
     Set<ValidationError> validate(Object object);
+
+    /**
+     * Validates object with options, validators which don't support options ignore them.
+     * @param object object which should have been validated.
+     * @param options options such as error budget.
+     * @return errors in the object.
+     */
+    default Set<ValidationError> validate(Object object, ValidationOptions options) {
+        return validate(object);
+    }
 }
@@ -0,0 +1,311 @@
+package form.library.processor;
+
+import form.library.annotations.Constrained;
+import form.library.services.GeneratedValidator;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.SimpleAnnotationValueVisitor9;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Optional annotation processor which generates GeneratedValidator for every @Constrained class,
+ * so the class is validated without reflection. It isn't registered as a service,
+ * so it runs only if enabled explicitly, e.g. with javac -processor form.library.processor.ConstrainedProcessor.
+ * Classes whose fields can't be read directly, e.g. private fields without getters,
+ * are reported with a note and are validated by reflection.
+ */
+public class ConstrainedProcessor extends AbstractProcessor {
+    private static final String SERVICE = "META-INF/services/" + GeneratedValidator.class.getName();
+
+    private final Set<String> generated = new TreeSet<>();    // Names of generated validators.
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(Constrained.class.getName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (var element : roundEnv.getElementsAnnotatedWith(Constrained.class)) {
+            if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.RECORD)
+                continue;
+            var type = (TypeElement) element;
+            try {
+                generate(type);
+            } catch (UnsupportedOperationException ex) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        String.format("Validator isn't generated, %s is validated by reflection: %s", type.getQualifiedName(), ex.getMessage()), type);
+            } catch (IOException ex) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Validator can't be written: " + ex.getMessage(), type);
+            }
+        }
+        if (roundEnv.processingOver() && !generated.isEmpty())
+            writeService();
+        return false;
+    }
+
+    /**
+     * Writes source of validator of class.
+     * @param type @Constrained class.
+     * @throws UnsupportedOperationException if some field or type can't be accessed from generated code.
+     */
+    private void generate(TypeElement type) throws IOException {
+        checkAccessible(type);
+        var elements = processingEnv.getElementUtils();
+        var binaryName = elements.getBinaryName(type).toString();
+        var name = GeneratedValidator.nameOf(binaryName);
+        var packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        var simpleName = packageName.isEmpty() ? name : name.substring(packageName.length() + 1);
+        var typeName = rawName(type.asType());
+
+        var fields = ElementFilter.fieldsIn(type.getEnclosedElements());
+        var reads = new ArrayList<String>();
+        var properties = new ArrayList<String>();
+        for (var field : fields) {
+            reads.add(read(type, field, typeName));
+            properties.add(String.format("property(\"%s\", %s)", field.getSimpleName(), typeUse(field.asType())));
+        }
+
+        var source = new StringBuilder();
+        if (!packageName.isEmpty())
+            source.append("package ").append(packageName).append(";\n\n");
+        source.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+              .append("public final class ").append(simpleName).append(" extends ").append(GeneratedValidator.class.getName()).append(" {\n")
+              .append("    public ").append(simpleName).append("() {\n")
+              .append("        super(").append(typeName).append(".class, properties());\n")
+              .append("    }\n\n")
+              .append("    private static Property[] properties() {\n")
+              .append("        return new Property[] {\n");
+        for (var property : properties)
+            source.append("            ").append(property).append(",\n");
+        source.append("        };\n")
+              .append("    }\n");
+
+        appendGetter(source, "Object", "get", fields, reads, kinds(TypeKind.values()));
+        appendGetter(source, "long", "getLong", fields, reads,
+                kinds(TypeKind.BYTE, TypeKind.SHORT, TypeKind.INT, TypeKind.LONG, TypeKind.CHAR));
+        appendGetter(source, "double", "getDouble", fields, reads,
+                kinds(TypeKind.BYTE, TypeKind.SHORT, TypeKind.INT, TypeKind.LONG, TypeKind.CHAR, TypeKind.FLOAT, TypeKind.DOUBLE));
+        source.append("}\n");
+
+        try (var writer = processingEnv.getFiler().createSourceFile(name, type).openWriter()) {
+            writer.write(source.toString());
+        }
+        generated.add(name);
+    }
+
+    private static Set<TypeKind> kinds(TypeKind... kinds) {
+        return Set.of(kinds);
+    }
+
+    /**
+     * Appends getter of properties of specified kinds, other properties are left to the base class.
+     */
+    private static void appendGetter(StringBuilder source, String returnType, String method,
+                                     List<VariableElement> fields, List<String> reads, Set<TypeKind> kinds) {
+        var cases = new StringBuilder();
+        for (int i = 0; i < fields.size(); ++i) {
+            if (kinds.contains(fields.get(i).asType().getKind()))
+                cases.append("            case ").append(i).append(": return ").append(reads.get(i)).append(";\n");
+        }
+        if (cases.length() == 0 && !method.equals("get"))
+            return;
+        source.append("\n    @Override\n")
+              .append("    protected ").append(returnType).append(' ').append(method).append("(Object object, int property) {\n")
+              .append("        switch (property) {\n")
+              .append(cases)
+              .append("            default: ").append(method.equals("get") ? "throw new IndexOutOfBoundsException(property)" : "return super." + method + "(object, property)").append(";\n")
+              .append("        }\n")
+              .append("    }\n");
+    }
+
+    /**
+     * Creates expression which reads field: the field itself, record component accessor or getter.
+     * @throws UnsupportedOperationException if the field is private and has no accessor.
+     */
+    private String read(TypeElement type, VariableElement field, String typeName) {
+        var name = field.getSimpleName().toString();
+        var target = field.getModifiers().contains(Modifier.STATIC) ? typeName : "((" + typeName + ") object)";
+        if (!field.getModifiers().contains(Modifier.PRIVATE))
+            return target + "." + name;
+
+        var capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        var candidates = type.getKind() == ElementKind.RECORD ? Set.of(name) : Set.of("get" + capitalized, "is" + capitalized);
+        for (var method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (candidates.contains(method.getSimpleName().toString()) && method.getParameters().isEmpty()
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && method.getModifiers().contains(Modifier.STATIC) == field.getModifiers().contains(Modifier.STATIC)
+                    && processingEnv.getTypeUtils().isSameType(method.getReturnType(), field.asType()))
+                return target + "." + method.getSimpleName() + "()";
+        }
+        throw new UnsupportedOperationException(String.format("field %s is private and has no getter", name));
+    }
+
+    /**
+     * Creates description of annotated type, mirroring how the type is seen by reflection.
+     */
+    private String typeUse(TypeMirror type) {
+        String element = "null";
+        String rawType = "java.lang.Object";
+        if (type.getKind() == TypeKind.DECLARED) {
+            rawType = rawName(type);
+            var arguments = ((DeclaredType) type).getTypeArguments();
+            if (!arguments.isEmpty()) {
+                var map = processingEnv.getElementUtils().getTypeElement("java.util.Map");
+                var types = processingEnv.getTypeUtils();
+                boolean isMap = types.isAssignable(types.erasure(type), types.erasure(map.asType()));
+                element = typeUse(isMap ? arguments.get(arguments.size() - 1) : arguments.get(0));
+            }
+        } else if (type.getKind() == TypeKind.ARRAY) {
+            var component = ((ArrayType) type).getComponentType();
+            boolean generic = component.getKind() == TypeKind.TYPEVAR
+                    || component.getKind() == TypeKind.DECLARED && !((DeclaredType) component).getTypeArguments().isEmpty();
+            rawType = generic ? "java.lang.Object[]" : rawName(type);
+            element = typeUse(component);
+        } else if (type.getKind().isPrimitive()) {
+            rawType = rawName(type);
+        }
+
+        var result = new StringBuilder("typeUse(").append(rawType).append(".class, ").append(element);
+        for (var annotation : type.getAnnotationMirrors()) {
+            if (isRuntimeVisible(annotation))
+                result.append(", ").append(annotation(annotation));
+        }
+        return result.append(')').toString();
+    }
+
+    private static boolean isRuntimeVisible(AnnotationMirror annotation) {
+        var retention = annotation.getAnnotationType().asElement().getAnnotation(Retention.class);
+        return retention != null && retention.value() == RetentionPolicy.RUNTIME;
+    }
+
+    /**
+     * Creates instance of annotation as anonymous class which returns values of the annotation.
+     */
+    private String annotation(AnnotationMirror annotation) {
+        var annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+        checkAccessible(annotationType);
+        var name = annotationType.getQualifiedName();
+        var result = new StringBuilder("new ").append(name).append("() {\n")
+                .append("                    @Override public Class<? extends java.lang.annotation.Annotation> annotationType() { return ")
+                .append(name).append(".class; }\n");
+        var values = processingEnv.getElementUtils().getElementValuesWithDefaults(annotation);
+        for (var entry : values.entrySet()) {
+            ExecutableElement method = entry.getKey();
+            var returnType = method.getReturnType();
+            result.append("                    @Override public ").append(rawName(returnType)).append(' ').append(method.getSimpleName())
+                  .append("() { return ").append(value(entry.getValue(), returnType)).append("; }\n");
+        }
+        return result.append("                }").toString();
+    }
+
+    /**
+     * Creates literal of annotation value.
+     * @throws UnsupportedOperationException for nested annotations.
+     */
+    private String value(AnnotationValue value, TypeMirror type) {
+        var elements = processingEnv.getElementUtils();
+        return value.accept(new SimpleAnnotationValueVisitor9<String, Void>() {
+            @Override
+            protected String defaultAction(Object constant, Void unused) {
+                return elements.getConstantExpression(constant);
+            }
+
+            @Override
+            public String visitType(TypeMirror mirror, Void unused) {
+                return rawName(mirror) + ".class";
+            }
+
+            @Override
+            public String visitEnumConstant(VariableElement constant, Void unused) {
+                return rawName(constant.asType()) + "." + constant.getSimpleName();
+            }
+
+            @Override
+            public String visitAnnotation(AnnotationMirror annotation, Void unused) {
+                throw new UnsupportedOperationException("nested annotations aren't supported");
+            }
+
+            @Override
+            public String visitArray(List<? extends AnnotationValue> values, Void unused) {
+                var component = ((ArrayType) type).getComponentType();
+                var result = new StringBuilder("new ").append(rawName(type)).append(" {");
+                for (int i = 0; i < values.size(); ++i)
+                    result.append(i > 0 ? ", " : "").append(value(values.get(i), component));
+                return result.append('}').toString();
+            }
+        }, null);
+    }
+
+    /**
+     * Creates name of erased type without type annotations, e.g. "java.util.List" or "int[]".
+     */
+    private static String rawName(TypeMirror type) {
+        switch (type.getKind()) {
+            case DECLARED:
+                return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+            case ARRAY:
+                return rawName(((ArrayType) type).getComponentType()) + "[]";
+            case TYPEVAR:
+            case WILDCARD:
+                return "java.lang.Object";
+            default:
+                return type.getKind().name().toLowerCase();
+        }
+    }
+
+    /**
+     * Checks that class can be referenced from its package.
+     * @throws UnsupportedOperationException if class or some enclosing class is private or local.
+     */
+    private static void checkAccessible(TypeElement type) {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            var nested = (TypeElement) element;
+            if (nested.getModifiers().contains(Modifier.PRIVATE))
+                throw new UnsupportedOperationException(String.format("%s is private", nested.getQualifiedName()));
+            if (nested.getNestingKind() == NestingKind.LOCAL || nested.getNestingKind() == NestingKind.ANONYMOUS)
+                throw new UnsupportedOperationException(String.format("%s is local", nested.getSimpleName()));
+        }
+    }
+
+    /**
+     * Registers all generated validators as services.
+     */
+    private void writeService() {
+        try (var writer = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE).openWriter()) {
+            for (var name : generated)
+                writer.write(name + "\n");
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Validators can't be registered: " + ex.getMessage());
+        }
+    }
+}
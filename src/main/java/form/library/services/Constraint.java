@@ -0,0 +1,60 @@
+package form.library.services;
+
+import form.library.interfaces.ValidationError;
+import form.library.validators.FormValidator;
+import form.library.validators.NumberValidator;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Constraint annotation paired with the validator
+ * which was resolved for it when the plan was compiled.
+ */
+final class Constraint {
+    final int id;                           // Id of annotation type in the registry.
+    final FormValidator validator;
+    final NumberValidator numberValidator;  // The same validator if it checks primitives, otherwise null.
+    final Annotation annotation;
+
+    Constraint(int id, FormValidator validator, Annotation annotation) {
+        this.id = id;
+        this.validator = validator;
+        this.numberValidator = validator instanceof NumberValidator ? (NumberValidator) validator : null;
+        this.annotation = annotation;
+    }
+
+    /**
+     * @return true if primitive values can be checked without boxing.
+     */
+    boolean isNumeric() {
+        return numberValidator != null;
+    }
+
+    /**
+     * Checks value of integral primitive field, only for numeric constraints.
+     * @param value value.
+     * @return true if value is correct.
+     */
+    boolean isValid(long value) {
+        return numberValidator.isValid(value);
+    }
+
+    /**
+     * Checks value of floating point primitive field, only for numeric constraints.
+     * @param value value.
+     * @return true if value is correct.
+     */
+    boolean isValid(double value) {
+        return numberValidator.isValid(value);
+    }
+
+    /**
+     * Checks value with this constraint.
+     * @param value value which should be checked.
+     * @param path path to the value.
+     * @return error or null if value is correct.
+     */
+    ValidationError validate(Object value, ServicePath path) {
+        return validator.validateValue(value, annotation, path);
+    }
+}
@@ -0,0 +1,32 @@
+package form.library.services;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of one constraint check.
+ * It's emitted only by validators built with constraint events and is disabled by default in JFR settings,
+ * enable it with form.library.Constraint#enabled=true.
+ */
+@Name("form.library.Constraint")
+@Label("Constraint Check")
+@Category("Forms Validator")
+@Description("Check of one value by a constraint validator")
+@Enabled(false)
+final class ConstraintEvent extends jdk.jfr.Event {
+    @Label("Constraint")
+    Class<?> constraint;
+
+    @Label("Validator")
+    Class<?> validator;
+
+    @Label("Path")
+    @Description("Path of the checked value, empty for primitives which satisfy the constraint")
+    String path;
+
+    @Label("Failed")
+    boolean failed;
+}
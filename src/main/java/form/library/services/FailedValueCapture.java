@@ -0,0 +1,155 @@
+package form.library.services;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * What errors keep of failed values.
+ * Errors may be logged or queued long after validation, so by default they don't keep references
+ * to collections, maps and other objects of the validated graph, only short summaries of them.
+ */
+public enum FailedValueCapture {
+    /**
+     * The value itself.
+     */
+    FULL {
+        @Override
+        Object capture(Object value) {
+            return value;
+        }
+    },
+    /**
+     * Numbers, booleans, characters and enums as they are, strings and containers as strings
+     * truncated to about 100 characters, e.g. "[a, b, c, ...] (size=1000)".
+     * Only the rendered part of value is read, toString of other objects isn't called,
+     * they are rendered by type and identity, e.g. "Address@1b6d3586".
+     */
+    SUMMARY {
+        @Override
+        Object capture(Object value) {
+            if (value == null || isScalar(value))
+                return value;
+            if (value instanceof CharSequence)
+                return truncate((CharSequence) value);
+            if (value instanceof Collection)
+                return summary(((Collection<?>) value).iterator(), ((Collection<?>) value).size(), '[', ']');
+            if (value instanceof Map)
+                return summary(((Map<?, ?>) value).entrySet().iterator(), ((Map<?, ?>) value).size(), '{', '}');
+            if (value.getClass().isArray())
+                return summary(new ArrayIterator(value), Array.getLength(value), '[', ']');
+            return identity(value);
+        }
+    },
+    /**
+     * Type of the value and its length or size, e.g. "ArrayList(size=1000)" or "String(length=12)".
+     */
+    TYPE_AND_SIZE {
+        @Override
+        Object capture(Object value) {
+            if (value == null)
+                return null;
+            var type = value.getClass().getSimpleName();
+            if (value instanceof CharSequence)
+                return String.format("%s(length=%d)", type, ((CharSequence) value).length());
+            if (value instanceof Collection)
+                return String.format("%s(size=%d)", type, ((Collection<?>) value).size());
+            if (value instanceof Map)
+                return String.format("%s(size=%d)", type, ((Map<?, ?>) value).size());
+            if (value.getClass().isArray())
+                return String.format("%s(length=%d)", type, Array.getLength(value));
+            return type;
+        }
+    },
+    /**
+     * Nothing, failed values of errors are null.
+     */
+    NONE {
+        @Override
+        Object capture(Object value) {
+            return null;
+        }
+    };
+
+    private static final int LIMIT = 100;   // Maximal length of summary before "...".
+
+    /**
+     * @param value failed value.
+     * @return what error keeps instead of the value.
+     */
+    abstract Object capture(Object value);
+
+    private static boolean isScalar(Object value) {
+        return value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum;
+    }
+
+    private static String truncate(CharSequence value) {
+        return value.length() <= LIMIT ? value.toString() : value.subSequence(0, LIMIT) + "...";
+    }
+
+    private static String identity(Object value) {
+        return value.getClass().getSimpleName() + '@' + Integer.toHexString(System.identityHashCode(value));
+    }
+
+    /**
+     * Renders elements until the summary is long enough, so large containers aren't rendered as a whole.
+     */
+    private static String summary(Iterator<?> elements, int size, char open, char close) {
+        var summary = new StringBuilder().append(open);
+        while (elements.hasNext() && summary.length() <= LIMIT) {
+            if (summary.length() > 1)
+                summary.append(", ");
+            var element = elements.next();
+            if (element instanceof Map.Entry) {
+                var entry = (Map.Entry<?, ?>) element;
+                summary.append(element(entry.getKey())).append('=').append(element(entry.getValue()));
+            } else {
+                summary.append(element(element));
+            }
+        }
+        if (elements.hasNext())
+            summary.append(", ...");
+        summary.append(close);
+        if (summary.length() > LIMIT)
+            summary.append(" (size=").append(size).append(')');
+        return summary.toString();
+    }
+
+    /**
+     * Renders element of container without rendering nested containers or calling toString of other objects.
+     */
+    private static String element(Object element) {
+        if (element == null || isScalar(element))
+            return String.valueOf(element);
+        if (element instanceof CharSequence)
+            return truncate((CharSequence) element);
+        if (element instanceof Collection || element instanceof Map || element.getClass().isArray())
+            return (String) TYPE_AND_SIZE.capture(element);
+        return identity(element);
+    }
+
+    /**
+     * Iterator of elements of any array.
+     */
+    private static final class ArrayIterator implements Iterator<Object> {
+        private final Object array;
+        private final int length;
+        private int index;
+
+        ArrayIterator(Object array) {
+            this.array = array;
+            this.length = Array.getLength(array);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < length;
+        }
+
+        @Override
+        public Object next() {
+            return Array.get(array, index++);
+        }
+    }
+}
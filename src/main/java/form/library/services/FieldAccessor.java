@@ -0,0 +1,145 @@
+package form.library.services;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+/**
+ * Reads value of one field.
+ * Fields are read through method handles held as constants of hidden classes,
+ * so the JIT can inline them, records are read through their component accessors
+ * and reflection is used only if access through handles is denied.
+ */
+abstract class FieldAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType LONG_GETTER_TYPE = MethodType.methodType(long.class, Object.class);
+    private static final MethodType DOUBLE_GETTER_TYPE = MethodType.methodType(double.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, Field.class);
+    private static final byte[] TEMPLATE = template(HiddenFieldAccessor.class);    // Class file of template or null if it is unavailable.
+
+    final Field field;  // Field which is read by this accessor, null for generated accessors.
+
+    FieldAccessor(Field field) {
+        this.field = field;
+    }
+
+    /**
+     * Takes value of field in object.
+     * @param object object which consist this field.
+     * @return value.
+     */
+    abstract Object get(Object object);
+
+    /**
+     * Takes value of byte, short, int or long field without boxing it.
+     * @param object object which consist this field.
+     * @return value.
+     */
+    abstract long getLong(Object object);
+
+    /**
+     * Takes value of numeric primitive field as double without boxing it.
+     * @param object object which consist this field.
+     * @return value.
+     */
+    abstract double getDouble(Object object);
+
+    /**
+     * Creates the fastest accessor available for specified field.
+     * @param field field of constrained class.
+     * @return accessor of the field.
+     */
+    static FieldAccessor of(Field field) {
+        if (TEMPLATE != null) {
+            try {
+                var lookup = MethodHandles.lookup().defineHiddenClassWithClassData(TEMPLATE, getters(field), true);
+                return (FieldAccessor) lookup.findConstructor(lookup.lookupClass(), CONSTRUCTOR_TYPE).invoke(field);
+            } catch (Throwable ignored) {
+                // Falls back to reflection below.
+            }
+        }
+        return new ReflectiveAccessor(field);
+    }
+
+    /**
+     * Reads class file of the template of hidden classes.
+     * @param template template class of this package, which isn't initialized.
+     * @return bytes of the class or null if class loader doesn't provide them.
+     */
+    static byte[] template(Class<?> template) {
+        try (var stream = FieldAccessor.class.getResourceAsStream(template.getSimpleName() + ".class")) {
+            return stream != null ? stream.readAllBytes() : null;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates handles of types (Object)Object, (Object)long and (Object)double which read the field.
+     * Primitive handles are meaningful only for numeric primitive fields.
+     * @param field field of constrained class.
+     * @return getter handles.
+     * @throws IllegalAccessException if class isn't open for deep reflection.
+     */
+    private static List<MethodHandle> getters(Field field) throws IllegalAccessException {
+        var type = field.getDeclaringClass();
+        var lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        MethodHandle getter = null;
+
+        if (type.isRecord() && !Modifier.isStatic(field.getModifiers())) {
+            for (var component : type.getRecordComponents()) {
+                if (component.getName().equals(field.getName()))
+                    getter = lookup.unreflect(component.getAccessor());
+            }
+        }
+        if (getter == null)
+            getter = lookup.unreflectGetter(field);
+        if (Modifier.isStatic(field.getModifiers()))
+            getter = MethodHandles.dropArguments(getter, 0, type);
+
+        return List.of(getter.asType(GETTER_TYPE),
+                MethodHandles.explicitCastArguments(getter, LONG_GETTER_TYPE),
+                MethodHandles.explicitCastArguments(getter, DOUBLE_GETTER_TYPE));
+    }
+
+    /**
+     * Accessor which uses Field.get as fallback.
+     */
+    private static final class ReflectiveAccessor extends FieldAccessor {
+        private ReflectiveAccessor(Field field) {
+            super(field);
+            field.trySetAccessible();
+        }
+
+        @Override
+        Object get(Object object) {
+            try {
+                return field.get(object);
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        long getLong(Object object) {
+            try {
+                return field.getLong(object);
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        double getDouble(Object object) {
+            try {
+                return field.getDouble(object);
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package form.library.services;
+
+import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationPath;
+import form.library.validators.FormValidator;
+import form.library.validators.NumberValidator;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Validation of a run of consecutive fields specialized for one class.
+ * Checks of the fields are composed into one method handle with validators, annotations and accessors bound,
+ * the handle is held as a constant of a hidden class, so the loop over fields is unrolled
+ * and constraint checks are called directly. Only fields whose values can't be entered
+ * by the traversal, e.g. primitives and strings, are specialized, other fields are walked as before.
+ */
+abstract class FieldBlock {
+    private static final MethodType CHECK_TYPE = MethodType.methodType(void.class, Object.class, ServicePath.class, ValidationErrorSink.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, int.class);
+    private static final byte[] TEMPLATE = FieldAccessor.template(HiddenFieldBlock.class);  // Class file of template or null if it is unavailable.
+
+    private static final MethodHandle VALIDATE;         // FormValidator.validateValue(Object, Annotation, ValidationPath).
+    private static final MethodHandle IS_VALID_LONG;    // NumberValidator.isValid(long).
+    private static final MethodHandle IS_VALID_DOUBLE;  // NumberValidator.isValid(double).
+    private static final MethodHandle GET;              // FieldAccessor.get(Object).
+    private static final MethodHandle GET_LONG;         // FieldAccessor.getLong(Object).
+    private static final MethodHandle GET_DOUBLE;       // FieldAccessor.getDouble(Object).
+    private static final MethodHandle PROPERTY;         // ServicePath.property(ServicePath, String).
+    private static final MethodHandle ADD;              // ValidationErrorSink.add(ValidationError).
+
+    static {
+        try {
+            var lookup = MethodHandles.lookup();
+            VALIDATE = lookup.findVirtual(FormValidator.class, "validateValue",
+                    MethodType.methodType(ValidationError.class, Object.class, Annotation.class, ValidationPath.class));
+            IS_VALID_LONG = lookup.findVirtual(NumberValidator.class, "isValid", MethodType.methodType(boolean.class, long.class));
+            IS_VALID_DOUBLE = lookup.findVirtual(NumberValidator.class, "isValid", MethodType.methodType(boolean.class, double.class));
+            GET = lookup.findVirtual(FieldAccessor.class, "get", MethodType.methodType(Object.class, Object.class));
+            GET_LONG = lookup.findVirtual(FieldAccessor.class, "getLong", MethodType.methodType(long.class, Object.class));
+            GET_DOUBLE = lookup.findVirtual(FieldAccessor.class, "getDouble", MethodType.methodType(double.class, Object.class));
+            PROPERTY = lookup.findStatic(ServicePath.class, "property", MethodType.methodType(ServicePath.class, ServicePath.class, String.class));
+            ADD = lookup.findVirtual(ValidationErrorSink.class, "add", MethodType.methodType(void.class, ValidationError.class));
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    final int end;  // Index of the field after the block.
+
+    FieldBlock(int end) {
+        this.end = end;
+    }
+
+    /**
+     * Checks all fields of the block.
+     * @param object object which has these fields.
+     * @param path path to the object or null for the root.
+     * @param sink accumulator of errors.
+     */
+    abstract void validate(Object object, ServicePath path, ValidationErrorSink sink);
+
+    /**
+     * Specializes runs of fields which don't have to be entered.
+     * @param fields fields of class in declaration order.
+     * @return blocks indexed by their first field or null if no field can be specialized.
+     */
+    static FieldBlock[] of(FieldPlan[] fields) {
+        if (TEMPLATE == null)
+            return null;
+
+        FieldBlock[] blocks = null;
+        for (int start = 0; start < fields.length; ) {
+            int end = start;
+            while (end < fields.length && fields[end].terminal)
+                ++end;
+            if (end > start) {
+                var block = of(fields, start, end);
+                if (block == null)
+                    return null;
+                if (blocks == null)
+                    blocks = new FieldBlock[fields.length];
+                blocks[start] = block;
+            }
+            start = end + 1;
+        }
+        return blocks;
+    }
+
+    /**
+     * Defines hidden class which checks fields of range.
+     * @return block or null if hidden class can't be defined.
+     */
+    private static FieldBlock of(FieldPlan[] fields, int start, int end) {
+        try {
+            MethodHandle checks = null;
+            for (int i = end - 1; i >= start; --i) {
+                var check = check(fields[i]);
+                if (check != null)
+                    checks = checks == null ? check : MethodHandles.foldArguments(checks, check);
+            }
+            if (checks == null)
+                return new Empty(end);
+            var lookup = MethodHandles.lookup().defineHiddenClassWithClassData(TEMPLATE, checks, true);
+            return (FieldBlock) lookup.findConstructor(lookup.lookupClass(), CONSTRUCTOR_TYPE).invoke(end);
+        } catch (Throwable ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Composes checks of all constraints of field into handle of type (Object, ServicePath, ValidationErrorSink)void,
+     * which takes the object and its path.
+     * @return handle or null if field has no constraints.
+     */
+    private static MethodHandle check(FieldPlan field) {
+        var constraints = field.type.constraints;
+        if (constraints.length == 0)
+            return null;
+
+        var get = GET.bindTo(field.accessor);
+        var property = MethodHandles.insertArguments(PROPERTY, 1, field.name);
+        MethodHandle checks = null;
+        for (int i = constraints.length - 1; i >= 0; --i) {
+            // Reference values are read and paths are created once for all constraints of the field.
+            // Primitives are read by every check and are boxed only if the check fails.
+            var check = field.kind == FieldPlan.REFERENCE
+                    ? valueCheck(constraints[i])
+                    : MethodHandles.filterArguments(valueCheck(constraints[i]), 0, get, property);
+            if (field.kind != FieldPlan.REFERENCE)
+                check = MethodHandles.guardWithTest(isValid(field, constraints[i]), MethodHandles.empty(CHECK_TYPE), check);
+            checks = checks == null ? check : MethodHandles.foldArguments(checks, check);
+        }
+        return field.kind == FieldPlan.REFERENCE ? MethodHandles.filterArguments(checks, 0, get, property) : checks;
+    }
+
+    /**
+     * Creates handle of type (Object, ServicePath, ValidationErrorSink)void which adds error of value to sink.
+     */
+    private static MethodHandle valueCheck(Constraint constraint) {
+        var validate = MethodHandles.insertArguments(VALIDATE.bindTo(constraint.validator), 1, constraint.annotation)
+                .asType(MethodType.methodType(ValidationError.class, Object.class, ServicePath.class));
+        var add = MethodHandles.collectArguments(ADD, 1, validate);
+        return MethodHandles.permuteArguments(add, CHECK_TYPE, 2, 0, 1);
+    }
+
+    /**
+     * Creates test of type (Object, ServicePath, ValidationErrorSink)boolean which checks primitive field without boxing.
+     */
+    private static MethodHandle isValid(FieldPlan field, Constraint constraint) {
+        var test = field.kind == FieldPlan.LONG
+                ? MethodHandles.filterArguments(IS_VALID_LONG.bindTo(constraint.numberValidator), 0, GET_LONG.bindTo(field.accessor))
+                : MethodHandles.filterArguments(IS_VALID_DOUBLE.bindTo(constraint.numberValidator), 0, GET_DOUBLE.bindTo(field.accessor));
+        return MethodHandles.dropArguments(test, 1, ServicePath.class, ValidationErrorSink.class);
+    }
+
+    /**
+     * Block of fields without constraints, which are skipped.
+     */
+    static final class Empty extends FieldBlock {
+        Empty(int end) {
+            super(end);
+        }
+
+        @Override
+        void validate(Object object, ServicePath path, ValidationErrorSink sink) { }
+    }
+}
@@ -0,0 +1,41 @@
+package form.library.services;
+
+import form.library.annotations.Constrained;
+
+import java.lang.reflect.Modifier;
+import java.util.Map;
+
+/**
+ * Compiled description of one field of a constrained class.
+ */
+final class FieldPlan {
+    static final int REFERENCE = 0;     // Value is read as object.
+    static final int LONG = 1;          // Value of byte, short, int or long field with only numeric constraints.
+    static final int DOUBLE = 2;        // Value of float or double field with only numeric constraints.
+
+    final FieldAccessor accessor;   // Reader of the field value.
+    final String name;              // Name of the field used in paths.
+    final TypePlan type;            // Constraints of the field and its elements.
+    final boolean container;        // Whether the field is declared as Iterable, Map or array.
+    final int kind;                 // How the value is read: REFERENCE, LONG or DOUBLE.
+    final boolean terminal;         // Whether the value is never entered, i.e. it can't be @Constrained object or container.
+
+    FieldPlan(FieldAccessor accessor, String name, Class<?> declaredType, TypePlan type, int kind) {
+        this.accessor = accessor;
+        this.name = name;
+        this.type = type;
+        this.container = isContainer(declaredType);
+        this.kind = kind;
+        this.terminal = isTerminal(declaredType);
+    }
+
+    private static boolean isTerminal(Class<?> type) {
+        if (type.isPrimitive())
+            return true;
+        return Modifier.isFinal(type.getModifiers()) && !type.isArray() && !isContainer(type) && !type.isAnnotationPresent(Constrained.class);
+    }
+
+    private static boolean isContainer(Class<?> type) {
+        return Iterable.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type) || type.isArray();
+    }
+}
@@ -0,0 +1,224 @@
+package form.library.services;
+
+import java.lang.annotation.Annotation;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Base class of validators generated at compile time by ConstrainedProcessor.
+ * Generated validator of a @Constrained class describes its fields with their type annotations
+ * and reads them directly, so the plan of the class is compiled without reflection
+ * and no accessors are defined at runtime. Generated validators are registered
+ * in META-INF/services and are found by ServiceValidator automatically.
+ */
+public abstract class GeneratedValidator {
+    private static final ClassValue<GeneratedValidator> validators = new ClassValue<>() {
+        @Override
+        protected GeneratedValidator computeValue(Class<?> type) {
+            return load(type);
+        }
+    };
+
+    private static final Map<ClassLoader, Set<String>> registered = new WeakHashMap<>();   // Names of registered validators by class loader.
+
+    private final Class<?> type;                // Validated class.
+    private final Property[] properties;        // Fields of validated class in declaration order.
+
+    /**
+     * @param type validated class.
+     * @param properties fields of validated class in declaration order.
+     */
+    protected GeneratedValidator(Class<?> type, Property... properties) {
+        this.type = type;
+        this.properties = properties;
+    }
+
+    /**
+     * @return validated class.
+     */
+    public final Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Takes value of property in object.
+     * @param object instance of validated class.
+     * @param property index of property.
+     * @return value.
+     */
+    protected abstract Object get(Object object, int property);
+
+    /**
+     * Takes value of integral primitive property without boxing it.
+     * @param object instance of validated class.
+     * @param property index of property.
+     * @return value.
+     * @throws IllegalArgumentException if property isn't integral primitive.
+     */
+    protected long getLong(Object object, int property) {
+        throw new IllegalArgumentException(String.format("Property %s isn't integral.", properties[property].name));
+    }
+
+    /**
+     * Takes value of numeric primitive property as double without boxing it.
+     * @param object instance of validated class.
+     * @param property index of property.
+     * @return value.
+     * @throws IllegalArgumentException if property isn't numeric primitive.
+     */
+    protected double getDouble(Object object, int property) {
+        throw new IllegalArgumentException(String.format("Property %s isn't numeric.", properties[property].name));
+    }
+
+    /**
+     * Describes field of validated class.
+     * @param name name of the field used in paths.
+     * @param type annotated type of the field.
+     * @return description of the field.
+     */
+    protected static Property property(String name, TypeUse type) {
+        return new Property(name, type);
+    }
+
+    /**
+     * Describes annotated type.
+     * @param type class of the type, Object for type variables and wildcards.
+     * @param element type of elements, map values or array components, null for other types.
+     * @param annotations annotations of the type.
+     * @return description of the type.
+     */
+    protected static TypeUse typeUse(Class<?> type, TypeUse element, Annotation... annotations) {
+        return new TypeUse(type, element, annotations);
+    }
+
+    /**
+     * Finds generated validator of class.
+     * Generated class is looked up by its name and used only if it is registered as service,
+     * so validators of other classes aren't instantiated.
+     * @param type @Constrained class.
+     * @return generated validator or null if there is no one.
+     */
+    static GeneratedValidator find(Class<?> type) {
+        return validators.get(type);
+    }
+
+    /**
+     * Creates name of validator generated for class, e.g. "shop.Order_Item_Validator" for nested class "shop.Order$Item".
+     * @param binaryName binary name of validated class.
+     * @return binary name of generated class.
+     */
+    public static String nameOf(String binaryName) {
+        int simpleName = binaryName.lastIndexOf('.') + 1;
+        return binaryName.substring(0, simpleName) + binaryName.substring(simpleName).replace('$', '_') + "_Validator";
+    }
+
+    private static GeneratedValidator load(Class<?> type) {
+        var loader = type.getClassLoader();
+        if (loader == null)
+            return null;
+        var name = nameOf(type.getName());
+        try {
+            var generated = Class.forName(name, false, loader);
+            if (!registered(loader).contains(name))
+                return null;
+            var validator = generated.asSubclass(GeneratedValidator.class).getConstructor().newInstance();
+            return validator.type == type ? validator : null;
+        } catch (ClassNotFoundException ex) {
+            return null;
+        } catch (ReflectiveOperationException | ClassCastException | ServiceConfigurationError ex) {
+            System.getLogger(GeneratedValidator.class.getName())
+                    .log(System.Logger.Level.WARNING, String.format("Generated validator of %s can't be loaded.", type.getName()), ex);
+        }
+        return null;
+    }
+
+    /**
+     * Takes names of generated validators registered in META-INF/services, they are collected once per class loader.
+     * @param loader class loader of validated classes.
+     * @return binary names of registered validators.
+     */
+    private static Set<String> registered(ClassLoader loader) {
+        synchronized (registered) {
+            return registered.computeIfAbsent(loader, ignored -> ServiceLoader.load(GeneratedValidator.class, loader).stream()
+                    .map(provider -> provider.type().getName())
+                    .collect(Collectors.toUnmodifiableSet()));
+        }
+    }
+
+    /**
+     * @return fields of validated class in declaration order.
+     */
+    Property[] getProperties() {
+        return properties;
+    }
+
+    /**
+     * Creates accessor of property which reads it through this validator.
+     * @param property index of property.
+     * @return accessor.
+     */
+    FieldAccessor accessor(int property) {
+        return new Accessor(this, property);
+    }
+
+    /**
+     * Description of one field of validated class.
+     */
+    public static final class Property {
+        final String name;
+        final TypeUse type;
+
+        private Property(String name, TypeUse type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    /**
+     * Description of annotated type of field or element.
+     */
+    public static final class TypeUse {
+        final Class<?> type;
+        final TypeUse element;
+        final Annotation[] annotations;
+
+        private TypeUse(Class<?> type, TypeUse element, Annotation[] annotations) {
+            this.type = type;
+            this.element = element;
+            this.annotations = annotations;
+        }
+    }
+
+    /**
+     * Accessor which reads property through generated code.
+     */
+    private static final class Accessor extends FieldAccessor {
+        private final GeneratedValidator validator;
+        private final int property;
+
+        private Accessor(GeneratedValidator validator, int property) {
+            super(null);
+            this.validator = validator;
+            this.property = property;
+        }
+
+        @Override
+        Object get(Object object) {
+            return validator.get(object, property);
+        }
+
+        @Override
+        long getLong(Object object) {
+            return validator.getLong(object, property);
+        }
+
+        @Override
+        double getDouble(Object object) {
+            return validator.getDouble(object, property);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package form.library.services;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+
+/**
+ * Template of accessors defined as hidden classes.
+ * Every hidden copy of this class receives its own getter handles as class data,
+ * so the handles are trusted constants and the JIT inlines the field read.
+ * The template itself is never initialized.
+ */
+final class HiddenFieldAccessor extends FieldAccessor {
+    private static final MethodHandle GETTER;          // Getter of type (Object)Object passed as class data.
+    private static final MethodHandle LONG_GETTER;     // Getter of type (Object)long passed as class data.
+    private static final MethodHandle DOUBLE_GETTER;   // Getter of type (Object)double passed as class data.
+
+    static {
+        try {
+            var lookup = MethodHandles.lookup();
+            GETTER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 0);
+            LONG_GETTER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 1);
+            DOUBLE_GETTER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 2);
+        } catch (IllegalAccessException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    HiddenFieldAccessor(Field field) {
+        super(field);
+    }
+
+    @Override
+    Object get(Object object) {
+        try {
+            return (Object) GETTER.invokeExact(object);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    long getLong(Object object) {
+        try {
+            return (long) LONG_GETTER.invokeExact(object);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    double getDouble(Object object) {
+        try {
+            return (double) DOUBLE_GETTER.invokeExact(object);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package form.library.services;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Template of field blocks defined as hidden classes.
+ * Every hidden copy of this class receives the handle which checks its fields as class data,
+ * so the handle is a trusted constant and the JIT compiles the block into straight-line code.
+ * The template itself is never initialized.
+ */
+final class HiddenFieldBlock extends FieldBlock {
+    private static final MethodHandle CHECKS;   // Checks of type (Object, ServicePath, ValidationErrorSink)void passed as class data.
+
+    static {
+        try {
+            CHECKS = MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+        } catch (IllegalAccessException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    HiddenFieldBlock(int end) {
+        super(end);
+    }
+
+    @Override
+    void validate(Object object, ServicePath path, ValidationErrorSink sink) {
+        try {
+            CHECKS.invokeExact(object, path, sink);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
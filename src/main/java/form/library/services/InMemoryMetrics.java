@@ -0,0 +1,164 @@
+package form.library.services;
+
+import form.library.interfaces.ValidationMetrics;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics which are kept in memory and can be read as snapshots.
+ * Durations are counted in a histogram with power of two buckets,
+ * bucket i holds durations from 2^i to 2^(i+1) - 1 nanoseconds.
+ */
+public final class InMemoryMetrics implements ValidationMetrics {
+    private final Map<Class<?>, Recorder> validations = new ConcurrentHashMap<>();          // Recorders of validated classes.
+    private final Map<Class<?>, Recorder> constraints = new ConcurrentHashMap<>();          // Recorders of constraint annotations.
+    private final Map<Class<?>, Recorder> validators = new ConcurrentHashMap<>();           // Recorders of validator classes.
+
+    @Override
+    public void recordValidation(Class<?> type, long nanos, int errors) {
+        validations.computeIfAbsent(type, ignored -> new Recorder()).record(nanos, errors > 0);
+    }
+
+    @Override
+    public void recordConstraint(Class<? extends Annotation> constraint, Class<?> validator, long nanos, boolean failed) {
+        constraints.computeIfAbsent(constraint, ignored -> new Recorder()).record(nanos, failed);
+        validators.computeIfAbsent(validator, ignored -> new Recorder()).record(nanos, failed);
+    }
+
+    /**
+     * @return statistics of validated classes, failures are validations with at least one error.
+     */
+    public Map<Class<?>, Stats> getValidations() {
+        return snapshot(validations);
+    }
+
+    /**
+     * @return statistics of constraints by annotation type, failures are violated checks.
+     */
+    public Map<Class<?>, Stats> getConstraints() {
+        return snapshot(constraints);
+    }
+
+    /**
+     * @return statistics of checks by class of validator, e.g. validator of strings compiled for Size.
+     */
+    public Map<Class<?>, Stats> getValidators() {
+        return snapshot(validators);
+    }
+
+    /**
+     * Forgets everything recorded so far.
+     */
+    public void reset() {
+        validations.clear();
+        constraints.clear();
+        validators.clear();
+    }
+
+    private static Map<Class<?>, Stats> snapshot(Map<Class<?>, Recorder> recorders) {
+        var result = new LinkedHashMap<Class<?>, Stats>();
+        recorders.forEach((type, recorder) -> result.put(type, recorder.snapshot()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Live counters of one class or constraint.
+     */
+    private static final class Recorder {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final AtomicLongArray histogram = new AtomicLongArray(Long.SIZE);
+
+        void record(long duration, boolean failed) {
+            count.increment();
+            if (failed)
+                failures.increment();
+            nanos.add(duration);
+            histogram.incrementAndGet(Stats.bucket(duration));
+        }
+
+        Stats snapshot() {
+            var buckets = new long[histogram.length()];
+            for (int i = 0; i < buckets.length; ++i)
+                buckets[i] = histogram.get(i);
+            return new Stats(count.sum(), failures.sum(), nanos.sum(), buckets);
+        }
+    }
+
+    /**
+     * Immutable statistics of one class or constraint.
+     */
+    public static final class Stats {
+        private final long count, failures, totalNanos;
+        private final long[] histogram;
+
+        private Stats(long count, long failures, long totalNanos, long[] histogram) {
+            this.count = count;
+            this.failures = failures;
+            this.totalNanos = totalNanos;
+            this.histogram = histogram;
+        }
+
+        private static int bucket(long nanos) {
+            return nanos <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+        }
+
+        /**
+         * @return number of calls.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return number of failed calls.
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return sum of durations in nanoseconds.
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @param bucket index of bucket from 0 to 63.
+         * @return number of calls which took from 2^bucket to 2^(bucket+1) - 1 nanoseconds.
+         */
+        public long getHistogram(int bucket) {
+            return histogram[bucket];
+        }
+
+        /**
+         * Estimates percentile of durations by the histogram.
+         * @param percentile percentile from 0 to 100.
+         * @return upper bound of bucket which contains the percentile in nanoseconds or 0 if nothing was recorded.
+         */
+        public long getPercentile(double percentile) {
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; ++i) {
+                seen += histogram[i];
+                if (seen >= rank && seen > 0)
+                    return i >= 62 ? Long.MAX_VALUE : (2L << i) - 1;
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, failures=%d, mean=%dns, p50=%dns, p99=%dns",
+                    count, failures, count > 0 ? totalNanos / count : 0, getPercentile(50), getPercentile(99));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package form.library.services;
+
+import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationMetrics;
+import form.library.interfaces.ValidationPath;
+import form.library.validators.FormValidator;
+import form.library.validators.NumberValidator;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Compiled validator which reports every check to metrics and flight recorder.
+ * Validators are wrapped when plans are compiled, only by validators built with metrics or constraint events,
+ * so validation without them runs exactly the same code as before.
+ */
+class InstrumentedValidator implements FormValidator {
+    final FormValidator validator;                  // Wrapped compiled validator.
+    final Class<? extends Annotation> constraint;   // Annotation type of the constraint.
+    final ValidationMetrics metrics;                // Receiver of measurements or null.
+    final boolean events;                           // Whether ConstraintEvent is emitted.
+
+    private InstrumentedValidator(FormValidator validator, Class<? extends Annotation> constraint, ValidationMetrics metrics, boolean events) {
+        this.validator = validator;
+        this.constraint = constraint;
+        this.metrics = metrics;
+        this.events = events;
+    }
+
+    /**
+     * Wraps compiled validator keeping its ability to check primitives.
+     * @param validator compiled validator.
+     * @param annotation annotation of the constraint.
+     * @param metrics receiver of measurements or null.
+     * @param events whether ConstraintEvent is emitted.
+     * @return instrumented validator.
+     */
+    static FormValidator wrap(FormValidator validator, Annotation annotation, ValidationMetrics metrics, boolean events) {
+        if (validator instanceof NumberValidator)
+            return new Numbers((NumberValidator) validator, annotation.annotationType(), metrics, events);
+        return new InstrumentedValidator(validator, annotation.annotationType(), metrics, events);
+    }
+
+    @Override
+    public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+        var event = begin();
+        long start = metrics != null ? System.nanoTime() : 0;
+        var error = validator.validateValue(fieldVal, annotation, path);
+        if (metrics != null)
+            metrics.recordConstraint(constraint, validator.getClass(), System.nanoTime() - start, error != null);
+        if (event != null)
+            commit(event, path, error != null);
+        return error;
+    }
+
+    /**
+     * @return started event or null if events aren't emitted.
+     */
+    ConstraintEvent begin() {
+        if (!events)
+            return null;
+        var event = new ConstraintEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits event if it's enabled in running recording.
+     */
+    void commit(ConstraintEvent event, ValidationPath path, boolean failed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.constraint = constraint;
+            event.validator = validator.getClass();
+            event.path = path != null ? path.toString() : "";
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Instrumented validator of numbers, primitive checks are reported too.
+     * Failed primitive checks are reported once, by validateValue which creates the error.
+     */
+    private static final class Numbers extends InstrumentedValidator implements NumberValidator {
+        private final NumberValidator numbers;
+
+        private Numbers(NumberValidator validator, Class<? extends Annotation> constraint, ValidationMetrics metrics, boolean events) {
+            super(validator, constraint, metrics, events);
+            this.numbers = validator;
+        }
+
+        @Override
+        public boolean isValid(long value) {
+            var event = begin();
+            long start = metrics != null ? System.nanoTime() : 0;
+            boolean valid = numbers.isValid(value);
+            if (valid)
+                valid(start, event);
+            return valid;
+        }
+
+        @Override
+        public boolean isValid(double value) {
+            var event = begin();
+            long start = metrics != null ? System.nanoTime() : 0;
+            boolean valid = numbers.isValid(value);
+            if (valid)
+                valid(start, event);
+            return valid;
+        }
+
+        private void valid(long start, ConstraintEvent event) {
+            if (metrics != null)
+                metrics.recordConstraint(constraint, validator.getClass(), System.nanoTime() - start, false);
+            if (event != null)
+                commit(event, null, false);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package form.library.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Templates of error messages by constraint codes, e.g. "Size.String" -> "String length should be between {0} and {1}".
+ * {n} is replaced by the n-th parameter of error, arrays are rendered as Arrays.toString.
+ * Templates are parsed once, on first use, and messages are rendered only when ServiceError.getMessage is called,
+ * so errors which are only counted or grouped by code are never formatted.
+ * Templates can be replaced for localization by setDefault.
+ */
+public final class MessageTemplates {
+    private static final Map<String, String> builtIn = Map.ofEntries(
+            Map.entry("AnyOf", "Must be one of {0}"),
+            Map.entry("InRange", "Must be in range between {0} and {1}"),
+            Map.entry("Negative", "Must be negative!"),
+            Map.entry("NotBlank", "Must not be blank!"),
+            Map.entry("NotEmpty.String", "String shouldn't be empty"),
+            Map.entry("NotEmpty.Map", "Map shouldn't be empty"),
+            Map.entry("NotEmpty.Collection", "Collection shouldn't be empty"),
+            Map.entry("NotNull", "Must not be null"),
+            Map.entry("Pattern", "Must match {0}"),
+            Map.entry("Positive", "Must be positive!"),
+            Map.entry("Size.String", "String length should be between {0} and {1}"),
+            Map.entry("Size.Map", "Map size should be between {0} and {1}"),
+            Map.entry("Size.Collection", "Collection size should be between {0} and {1}")
+    );
+    private static final MessageTemplates defaults = new MessageTemplates(builtIn, null);
+    private static volatile MessageTemplates current = defaults;
+
+    private final Map<String, String> templates;                                    // Templates by code.
+    private final ResourceBundle bundle;                                            // Bundle which overrides templates or null.
+    private final Map<String, Object[]> parsed = new ConcurrentHashMap<>();         // Parsed templates by code.
+
+    private MessageTemplates(Map<String, String> templates, ResourceBundle bundle) {
+        this.templates = templates;
+        this.bundle = bundle;
+    }
+
+    /**
+     * @return built-in english templates.
+     */
+    public static MessageTemplates defaults() {
+        return defaults;
+    }
+
+    /**
+     * Creates templates which override built-in ones, e.g. for custom constraints.
+     * @param templates templates by codes.
+     * @return templates.
+     */
+    public static MessageTemplates of(Map<String, String> templates) {
+        var result = new HashMap<>(builtIn);
+        result.putAll(templates);
+        return new MessageTemplates(Map.copyOf(result), null);
+    }
+
+    /**
+     * Creates templates from bundle, e.g. ResourceBundle.getBundle("messages", locale).
+     * Codes which are missing in the bundle have built-in templates.
+     * @param bundle bundle with codes as keys.
+     * @return templates.
+     */
+    public static MessageTemplates of(ResourceBundle bundle) {
+        return new MessageTemplates(builtIn, bundle);
+    }
+
+    /**
+     * @return templates which render messages of errors.
+     */
+    public static MessageTemplates getDefault() {
+        return current;
+    }
+
+    /**
+     * Replaces templates which render messages of errors, messages which were already rendered aren't changed.
+     * @param templates new templates.
+     */
+    public static void setDefault(MessageTemplates templates) {
+        if (templates == null)
+            throw new IllegalArgumentException("Templates can't be null.");
+        current = templates;
+    }
+
+    /**
+     * @param code constraint code.
+     * @return template or null if code is unknown.
+     */
+    public String getTemplate(String code) {
+        if (bundle != null) {
+            try {
+                return bundle.getString(code);
+            } catch (MissingResourceException ignored) {
+                // Built-in template is used.
+            }
+        }
+        return templates.get(code);
+    }
+
+    /**
+     * Renders message.
+     * @param code constraint code.
+     * @param params parameters of template.
+     * @return message or code if it has no template.
+     */
+    public String render(String code, Object[] params) {
+        var parts = parsed.computeIfAbsent(code, this::parse);
+        var message = new StringBuilder();
+        for (var part : parts) {
+            if (part instanceof Integer) {
+                int index = (Integer) part;
+                var param = index < params.length ? params[index] : null;
+                message.append(param instanceof Object[] ? Arrays.toString((Object[]) param) : String.valueOf(param));
+            } else {
+                message.append((String) part);
+            }
+        }
+        return message.toString();
+    }
+
+    /**
+     * Splits template into strings and indexes of parameters.
+     */
+    private Object[] parse(String code) {
+        var template = getTemplate(code);
+        if (template == null)
+            return new Object[] { code };
+        var parts = new ArrayList<>();
+        int literal = 0;
+        for (int i = 0; i < template.length(); ++i) {
+            if (template.charAt(i) != '{')
+                continue;
+            int close = i + 1;
+            while (close < template.length() && Character.isDigit(template.charAt(close)))
+                ++close;
+            if (close == i + 1 || close > i + 10 || close == template.length() || template.charAt(close) != '}')
+                continue;
+            if (literal < i)
+                parts.add(template.substring(literal, i));
+            parts.add(Integer.parseInt(template.substring(i + 1, close)));
+            literal = close + 1;
+            i = close;
+        }
+        if (literal < template.length())
+            parts.add(template.substring(literal));
+        return parts.toArray();
+    }
+}
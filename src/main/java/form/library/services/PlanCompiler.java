@@ -0,0 +1,229 @@
+package form.library.services;
+
+import form.library.annotations.Constrained;
+import form.library.interfaces.ValidationMetrics;
+import form.library.validators.Validators;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedArrayType;
+import java.lang.reflect.AnnotatedParameterizedType;
+import java.lang.reflect.AnnotatedType;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compiles validation plans of classes.
+ * Validators are resolved and specialized for declared types here, once per class,
+ * so misapplied annotations are reported once instead of on every validated value.
+ */
+final class PlanCompiler {
+    private static final Constraint[] NO_CONSTRAINTS = new Constraint[0];
+    private static final Set<Class<?>> VALUE_TYPES = Set.of(String.class, Boolean.class, Character.class,   // Immutable types of record components.
+            Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class,
+            UUID.class, LocalDate.class, LocalTime.class, LocalDateTime.class, Instant.class, Duration.class, Period.class);
+    private static final System.Logger logger = System.getLogger(PlanCompiler.class.getName());   // Receiver of diagnostics of misapplied annotations.
+
+    private final Validators validators;                                        // Registry of constraints.
+    private final boolean strict;                                               // Whether misapplied annotations are errors.
+    private final boolean generated;                                            // Whether generated validators are used.
+    private final boolean specialized;                                          // Whether fields are specialized in hidden classes.
+    private final ValidationMetrics metrics;                                    // Receiver of measurements of checks or null.
+    private final boolean constraintEvents;                                     // Whether checks emit ConstraintEvent.
+
+    PlanCompiler(Validators validators, boolean strict, boolean generated, boolean specialized,
+                 ValidationMetrics metrics, boolean constraintEvents) {
+        this.validators = validators;
+        this.strict = strict;
+        this.generated = generated;
+        this.specialized = specialized;
+        this.metrics = metrics;
+        this.constraintEvents = constraintEvents;
+    }
+
+    /**
+     * Compiles plan for specified class.
+     * Plan is compiled from the generated validator of the class if there is one, otherwise by reflection.
+     * @param type class of validated objects.
+     * @return plan of the class.
+     * @throws IllegalStateException in strict mode if some annotation is misapplied.
+     */
+    ValidationPlan compile(Class<?> type) {
+        if (!type.isAnnotationPresent(Constrained.class))
+            return ValidationPlan.UNCONSTRAINED;
+
+        var generatedValidator = generated ? GeneratedValidator.find(type) : null;
+        if (generatedValidator != null)
+            return compile(generatedValidator);
+
+        var declaredFields = type.getDeclaredFields();
+        var fields = new FieldPlan[declaredFields.length];
+        for (int i = 0; i < declaredFields.length; ++i)
+            fields[i] = compileField(declaredFields[i]);
+
+        return plan(type, fields);
+    }
+
+    /**
+     * Compiles plan from fields described by generated validator, without reflection.
+     * @param validator generated validator of class.
+     * @return plan of the class.
+     */
+    private ValidationPlan compile(GeneratedValidator validator) {
+        var properties = validator.getProperties();
+        var fields = new FieldPlan[properties.length];
+        for (int i = 0; i < properties.length; ++i) {
+            var property = properties[i];
+            var type = compileType(property.type, property.name);
+            fields[i] = new FieldPlan(validator.accessor(i), property.name, property.type.type, type, kind(property.type.type, type));
+        }
+        return plan(validator.getType(), fields);
+    }
+
+    /**
+     * Creates plan and specializes its fields if it is enabled.
+     * Fields which can't be specialized are walked by the traversal.
+     * @param type @Constrained class.
+     * @param fields compiled fields.
+     * @return plan of the class.
+     */
+    private ValidationPlan plan(Class<?> type, FieldPlan[] fields) {
+        return new ValidationPlan(fields, specialized ? FieldBlock.of(fields) : null, isImmutable(type, new HashSet<>()));
+    }
+
+    /**
+     * Decides whether instances of class never change. Records are only shallowly immutable,
+     * so they count as immutable only if their components are primitives, value types or immutable classes.
+     * @param type class.
+     * @param records records which are already being checked, so cycles between them are cut.
+     * @return true if class is @Constrained(immutable = true) or such record.
+     */
+    private static boolean isImmutable(Class<?> type, Set<Class<?>> records) {
+        var constrained = type.getAnnotation(Constrained.class);
+        if (constrained != null && constrained.immutable())
+            return true;
+        if (!type.isRecord())
+            return type.isPrimitive() || type.isEnum() || VALUE_TYPES.contains(type);
+        if (!records.add(type))
+            return true;
+        for (var component : type.getRecordComponents()) {
+            if (!isImmutable(component.getType(), records))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Creates accessor of the field and compiles its annotated type.
+     * @param field field of constrained class.
+     * @return compiled plan of the field.
+     */
+    private FieldPlan compileField(Field field) {
+        var type = compileType(field.getAnnotatedType(), field.getName());
+        return new FieldPlan(FieldAccessor.of(field), field.getName(), field.getType(), type, kind(field.getType(), type));
+    }
+
+    /**
+     * Decides how value of field should be read.
+     * Numeric primitives with only numeric constraints are checked without boxing.
+     * @param type declared type of field.
+     * @param plan compiled constraints of field.
+     * @return kind of field, one of FieldPlan constants.
+     */
+    private static int kind(Class<?> type, TypePlan plan) {
+        if (!type.isPrimitive() || type == boolean.class || type == char.class)
+            return FieldPlan.REFERENCE;
+        for (var constraint : plan.constraints) {
+            if (!constraint.isNumeric())
+                return FieldPlan.REFERENCE;
+        }
+        return type == float.class || type == double.class ? FieldPlan.DOUBLE : FieldPlan.LONG;
+    }
+
+    /**
+     * Resolves validators for all annotations of annotated type.
+     * Element plan is compiled from the first type argument, the value type of maps or the component type of arrays.
+     * @param annotatedType annotated type of field or element.
+     * @param path path of the field used in diagnostics, e.g. "members" or "members[]".
+     * @return compiled plan of the type.
+     */
+    private TypePlan compileType(AnnotatedType annotatedType, String path) {
+        var type = rawType(annotatedType.getType());
+        TypePlan element = null;
+        if (annotatedType instanceof AnnotatedParameterizedType) {
+            var arguments = ((AnnotatedParameterizedType) annotatedType).getAnnotatedActualTypeArguments();
+            var elementType = Map.class.isAssignableFrom(type) ? arguments[arguments.length - 1] : arguments[0];
+            element = compileType(elementType, path + "[]");
+        } else if (annotatedType instanceof AnnotatedArrayType) {
+            element = compileType(((AnnotatedArrayType) annotatedType).getAnnotatedGenericComponentType(), path + "[]");
+        }
+        return new TypePlan(compileConstraints(annotatedType.getAnnotations(), type, path), element);
+    }
+
+    /**
+     * Resolves validators for all annotations of type described by generated validator.
+     * @param typeUse description of type of field or element.
+     * @param path path of the field used in diagnostics.
+     * @return compiled plan of the type.
+     */
+    private TypePlan compileType(GeneratedValidator.TypeUse typeUse, String path) {
+        var element = typeUse.element != null ? compileType(typeUse.element, path + "[]") : null;
+        return new TypePlan(compileConstraints(typeUse.annotations, typeUse.type, path), element);
+    }
+
+    /**
+     * Resolves and specializes validators of annotations which are registered constraints.
+     * @param typeAnnotations annotations of type.
+     * @param type class of the type.
+     * @param path path of the field used in diagnostics.
+     * @return constraints of the type.
+     */
+    private Constraint[] compileConstraints(Annotation[] typeAnnotations, Class<?> type, String path) {
+        var constraints = new ArrayList<Constraint>();
+        for (var annotation : typeAnnotations) {
+            int id = validators.getId(annotation.annotationType());
+            if (id >= 0) {
+                try {
+                    var compiled = validators.getValidator(id).compile(annotation, type);
+                    if (metrics != null || constraintEvents)
+                        compiled = InstrumentedValidator.wrap(compiled, annotation, metrics, constraintEvents);
+                    constraints.add(new Constraint(id, compiled, annotation));
+                } catch (IllegalArgumentException ex) {
+                    var message = String.format("%s Problem with: %s", ex.getMessage(), path);
+                    if (strict)
+                        throw new IllegalStateException(message, ex);
+                    logger.log(System.Logger.Level.WARNING, message);
+                }
+            }
+        }
+        return constraints.isEmpty() ? NO_CONSTRAINTS : constraints.toArray(NO_CONSTRAINTS);
+    }
+
+    /**
+     * @param type declared type.
+     * @return class of declared type or Object if it is a type variable or a wildcard.
+     */
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class)
+            return (Class<?>) type;
+        if (type instanceof ParameterizedType)
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        if (type instanceof GenericArrayType)
+            return Object[].class;
+        return Object.class;
+    }
+}
@@ -0,0 +1,125 @@
+package form.library.services;
+
+import java.lang.reflect.Array;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Value of property of an object graph resolved by path like "items[3].price",
+ * together with the compiled constraints which apply to it.
+ * Only the objects and containers on the path are read, fields are found by names in cached plans.
+ */
+final class PropertyTarget {
+    private static final Object MISSING = new Object();    // Element at index out of bounds.
+
+    final Object value;         // Value of property, may be null.
+    final TypePlan type;        // Constraints of property or null if it has none, e.g. element of raw list.
+    final boolean container;    // Whether value should be entered as container.
+    final ServicePath path;     // Path of property.
+    final Object[] owners;      // Objects on the path whose fields were read, they count as already entered.
+
+    private PropertyTarget(Object value, TypePlan type, boolean container, ServicePath path, Object[] owners) {
+        this.value = value;
+        this.type = type;
+        this.container = container;
+        this.path = path;
+        this.owners = owners;
+    }
+
+    /**
+     * Resolves property of object.
+     * @param plans compiled plans of classes.
+     * @param object root object.
+     * @param property path of property, not null.
+     * @return target or null if some object on the path is null or some index is out of bounds.
+     * @throws IllegalArgumentException if some field isn't declared by @Constrained class or value isn't a container.
+     */
+    static PropertyTarget resolve(ClassValue<ValidationPlan> plans, Object object, ServicePath property) {
+        int length = 0;
+        for (var segment = property; segment != null; segment = segment.getParent())
+            ++length;
+        var segments = new ServicePath[length];
+        for (var segment = property; segment != null; segment = segment.getParent())
+            segments[--length] = segment;
+
+        Object value = object;
+        TypePlan type = null;
+        boolean container = false;
+        ServicePath path = null;
+        var owners = new ArrayList<>();
+        for (var segment : segments) {
+            if (value == null)
+                return null;
+            if (segment.getName() != null) {
+                var field = plans.get(value.getClass()).field(segment.getName());
+                if (field == null)
+                    throw new IllegalArgumentException(String.format("Unknown property %s of %s.", segment, value.getClass().getName()));
+                owners.add(value);
+                path = ServicePath.property(path, field.name);
+                value = field.accessor.get(value);
+                type = field.type;
+                container = field.container;
+            } else {
+                if (!container)
+                    throw new IllegalArgumentException(String.format("Property %s isn't a container.", path));
+                if (segment.isIndex() && !(value instanceof Map)) {
+                    path = ServicePath.index(path, segment.getIndex());
+                    value = element(value, segment.getIndex());
+                    if (value == MISSING)
+                        return null;
+                } else {
+                    var key = segment.isIndex() ? String.valueOf(segment.getIndex()) : segment.getKey();
+                    var entry = entry((Map<?, ?>) value, key);
+                    if (entry == null)
+                        return null;
+                    path = ServicePath.key(path, entry.getKey());
+                    value = entry.getValue();
+                }
+                type = type != null ? type.element : null;
+                container = true;
+            }
+        }
+        return new PropertyTarget(value, type, container, path, owners.toArray());
+    }
+
+    /**
+     * Reads element of list, iterable or array.
+     * @return element or MISSING if index is out of bounds.
+     */
+    private static Object element(Object container, int index) {
+        if (container instanceof List) {
+            var list = (List<?>) container;
+            return index < list.size() ? list.get(index) : MISSING;
+        }
+        if (container instanceof Iterable) {
+            Iterator<?> iterator = ((Iterable<?>) container).iterator();
+            for (int i = 0; i < index && iterator.hasNext(); ++i)
+                iterator.next();
+            return iterator.hasNext() ? iterator.next() : MISSING;
+        }
+        if (container.getClass().isArray())
+            return index < Array.getLength(container) ? Array.get(container, index) : MISSING;
+        return MISSING;
+    }
+
+    /**
+     * Finds entry of map by key or, since rendered paths have only strings, by string form of key.
+     */
+    private static Map.Entry<?, ?> entry(Map<?, ?> map, Object key) {
+        try {
+            if (map.containsKey(key))
+                return new AbstractMap.SimpleImmutableEntry<>(key, map.get(key));
+        } catch (ClassCastException | NullPointerException ignored) {
+            // Keys of sorted map aren't strings, they are compared by string form.
+        }
+        for (var entry : map.entrySet()) {
+            if (Objects.equals(entry.getKey(), key) || Objects.equals(String.valueOf(entry.getKey()), key))
+                return entry;
+        }
+        return null;
+    }
+}
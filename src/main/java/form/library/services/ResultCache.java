@@ -0,0 +1,146 @@
+package form.library.services;
+
+import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationOptions;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of validation results of immutable objects, i.e. @Constrained(immutable = true) classes
+ * and records whose components are primitives, value types like String or such classes themselves.
+ * Least recently used results are evicted when the cache is full.
+ * Objects are keyed either by identity or by equals and hashCode, together with the options which change results,
+ * i.e. the error budget and how shared instances are reported, so results of different options aren't mixed.
+ * Parallel options don't change results, so they aren't a part of the key. Only objects passed to validate are cached,
+ * immutable objects nested in other objects are validated as usual.
+ */
+public final class ResultCache {
+    private final int maximumSize;
+    private final boolean identityKeys;
+    private final Map<Key, Set<ValidationError>> results;   // Results in access order, guarded by this.
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    ResultCache(int maximumSize, boolean identityKeys) {
+        this.maximumSize = maximumSize;
+        this.identityKeys = identityKeys;
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Set<ValidationError>> eldest) {
+                if (size() <= ResultCache.this.maximumSize)
+                    return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param object validated object.
+     * @param options options of validation.
+     * @return unmodifiable cached errors or null if object wasn't validated with these options.
+     */
+    Set<ValidationError> get(Object object, ValidationOptions options) {
+        Set<ValidationError> errors;
+        synchronized (this) {
+            errors = results.get(new Key(object, options, identityKeys));
+        }
+        (errors != null ? hits : misses).increment();
+        return errors;
+    }
+
+    /**
+     * @param object validated object.
+     * @param options options of validation.
+     * @param errors unmodifiable set of errors.
+     */
+    void put(Object object, ValidationOptions options, Set<ValidationError> errors) {
+        synchronized (this) {
+            results.put(new Key(object, options, identityKeys), errors);
+        }
+    }
+
+    /**
+     * @return number of validations answered by the cache.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of validations of objects which weren't cached.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of results evicted because the cache was full.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return number of cached results.
+     */
+    public synchronized int size() {
+        return results.size();
+    }
+
+    /**
+     * @return maximal number of cached results.
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Forgets all results, statistics are kept.
+     */
+    public synchronized void clear() {
+        results.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d, hits=%d, misses=%d, evictions=%d", size(), getHits(), getMisses(), getEvictions());
+    }
+
+    /**
+     * Key of object validated with options.
+     */
+    private static final class Key {
+        private final Object object;
+        private final int maxErrors;
+        private final boolean allPaths;
+        private final boolean identity;
+        private final int hash;
+
+        Key(Object object, ValidationOptions options, boolean identity) {
+            this.object = object;
+            this.maxErrors = options.getMaxErrors();
+            this.allPaths = options.isReportSharedAtAllPaths();
+            this.identity = identity;
+            this.hash = (31 * maxErrors + (allPaths ? 1 : 0)) * 31 + (identity ? System.identityHashCode(object) : object.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+            var key = (Key) other;
+            return maxErrors == key.maxErrors && allPaths == key.allPaths
+                    && (identity ? object == key.object : object.equals(key.object));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -1,31 +1,154 @@
 package form.library.services;
 
 import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationPath;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Error class, which contains
  * message, path and failed value.
+ * Path is rendered to string only when it is requested.
+ * Errors of constraints carry code and parameters instead of message,
+ * the message is rendered by MessageTemplates only when it is requested.
  */
 public class ServiceError implements ValidationError {
-    private final String message, path;
+    private static final Object[] NO_PARAMS = new Object[0];
+
+    private final String code;
+    private final Object[] params;
+    private final ValidationPath propertyPath;
     private final Object failedValue;
+    private final String message;           // Given message or null if it is rendered from templates.
+    private String path;
+    private volatile Rendered rendered;     // Message rendered by last used templates or null.
 
     public ServiceError(String path, String message, Object failedValue) {
+        this(parse(path), message, failedValue);
         this.path = path;
+    }
+
+    public ServiceError(ValidationPath propertyPath, String message, Object failedValue) {
+        this(propertyPath, null, NO_PARAMS, message, failedValue);
+    }
+
+    /**
+     * Creates error of constraint whose message is rendered lazily.
+     * @param propertyPath path to value.
+     * @param code constraint code, e.g. "Size.String".
+     * @param params parameters of message template, the array isn't copied and mustn't be changed.
+     * @param failedValue value.
+     */
+    public ServiceError(ValidationPath propertyPath, String code, Object[] params, Object failedValue) {
+        this(propertyPath, code, params, null, failedValue);
+    }
+
+    private ServiceError(ValidationPath propertyPath, String code, Object[] params, String message, Object failedValue) {
+        this.propertyPath = propertyPath;
+        this.code = code;
+        this.params = params != null ? params : NO_PARAMS;
         this.message = message;
         this.failedValue = failedValue;
     }
 
+    /**
+     * Parses rendered path, paths which can't be parsed are kept as a single name.
+     */
+    private static ServicePath parse(String path) {
+        if (path == null)
+            return null;
+        try {
+            return ServicePath.parse(path);
+        } catch (IllegalArgumentException ex) {
+            return ServicePath.property(null, path);
+        }
+    }
+
+    /**
+     * Returns structured path of any error, errors which don't have it are parsed from rendered path.
+     * @param error error.
+     * @return path or null for empty path.
+     */
+    static ValidationPath pathOf(ValidationError error) {
+        var propertyPath = error.getPropertyPath();
+        return propertyPath != null ? propertyPath : parse(error.getPath());
+    }
+
+    /**
+     * Creates same error at other path.
+     */
+    ServiceError at(ValidationPath propertyPath) {
+        var error = new ServiceError(propertyPath, code, params, message, failedValue);
+        error.rendered = rendered;
+        return error;
+    }
+
+    /**
+     * Creates same error with other failed value.
+     */
+    ServiceError withFailedValue(Object failedValue) {
+        var error = new ServiceError(propertyPath, code, params, message, failedValue);
+        error.path = path;
+        error.rendered = rendered;
+        return error;
+    }
+
     @Override
     public String getMessage() {
-        return message;
+        if (code == null)
+            return message;
+        var current = MessageTemplates.getDefault();
+        var last = rendered;
+        if (last == null || last.templates != current) {
+            last = new Rendered(current, current.render(code, params));
+            rendered = last;
+        }
+        return last.message;
+    }
+    @Override
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * @return parameters of message template.
+     */
+    public List<Object> getParams() {
+        return Collections.unmodifiableList(Arrays.asList(params));
+    }
+    /**
+     * @return parameters of message template, which mustn't be changed.
+     */
+    Object[] params() {
+        return params;
     }
     @Override
     public String getPath() {
+        if (path == null)
+            path = propertyPath != null ? propertyPath.toString() : "";
         return path;
     }
     @Override
+    public ValidationPath getPropertyPath() {
+        return propertyPath;
+    }
+    @Override
     public Object getFailedValue() {
         return failedValue;
     }
+
+    /**
+     * Message together with templates which rendered it, so both are published at once.
+     */
+    private static final class Rendered {
+        private final MessageTemplates templates;
+        private final String message;
+
+        private Rendered(MessageTemplates templates, String message) {
+            this.templates = templates;
+            this.message = message;
+        }
+    }
 }
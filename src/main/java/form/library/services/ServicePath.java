@@ -0,0 +1,161 @@
+package form.library.services;
+
+import form.library.interfaces.ValidationPath;
+
+/**
+ * Immutable path segment linked to its parent.
+ * Segments are cheap to create and rendered to string
+ * only when the path of an error is requested.
+ */
+public final class ServicePath implements ValidationPath {
+    private static final int KEY = -2;  // Index of key segments.
+
+    private final ServicePath parent;
+    private final String name;
+    private final int index;
+    private final Object key;
+
+    private ServicePath(ServicePath parent, String name, int index, Object key) {
+        this.parent = parent;
+        this.name = name;
+        this.index = index;
+        this.key = key;
+    }
+
+    /**
+     * Creates path of the field.
+     * @param parent path of object which has this field or null for the root object.
+     * @param name name of the field.
+     * @return path of the field.
+     */
+    public static ServicePath property(ServicePath parent, String name) {
+        return new ServicePath(parent, name, -1, null);
+    }
+
+    /**
+     * Creates path of the list element.
+     * @param parent path of the list.
+     * @param index index of element.
+     * @return path of the element.
+     */
+    public static ServicePath index(ServicePath parent, int index) {
+        return new ServicePath(parent, null, index, null);
+    }
+
+    /**
+     * Creates path of the map value.
+     * @param parent path of the map.
+     * @param key key of value, may be null.
+     * @return path of the value.
+     */
+    public static ServicePath key(ServicePath parent, Object key) {
+        return new ServicePath(parent, null, KEY, key);
+    }
+
+    /**
+     * Parses rendered path like "members[0][1].firstName".
+     * Non numeric brackets like "scores[alice]" are parsed as string keys.
+     * @param path rendered path.
+     * @return structured path or null for empty path.
+     * @throws IllegalArgumentException if some bracket isn't closed.
+     */
+    public static ServicePath parse(String path) {
+        ServicePath result = null;
+        int i = 0;
+        while (i < path.length()) {
+            char c = path.charAt(i);
+            if (c == '.') {
+                ++i;
+            } else if (c == '[') {
+                int end = path.indexOf(']', i);
+                if (end < 0)
+                    throw new IllegalArgumentException(String.format("Unclosed bracket at %d in path %s.", i, path));
+                var segment = path.substring(i + 1, end);
+                result = isNumber(segment) ? index(result, Integer.parseInt(segment)) : key(result, segment);
+                i = end + 1;
+            } else {
+                int end = i;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[')
+                    ++end;
+                result = property(result, path.substring(i, end));
+                i = end;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether rendered path is the rendered property itself or a path inside it,
+     * e.g. "address.zip" and "items[3]" are under "address" and "items".
+     * @param path rendered path.
+     * @param property rendered path of property.
+     * @return true if path starts with property.
+     */
+    static boolean isUnder(String path, String property) {
+        if (!path.startsWith(property))
+            return false;
+        return path.length() == property.length() || path.charAt(property.length()) == '.' || path.charAt(property.length()) == '[';
+    }
+
+    private static boolean isNumber(String segment) {
+        if (segment.isEmpty() || segment.length() > 9)
+            return false;
+        for (int i = 0; i < segment.length(); ++i) {
+            if (segment.charAt(i) < '0' || segment.charAt(i) > '9')
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public ServicePath getParent() {
+        return parent;
+    }
+    @Override
+    public String getName() {
+        return name;
+    }
+    @Override
+    public int getIndex() {
+        return index == KEY ? -1 : index;
+    }
+    @Override
+    public Object getKey() {
+        return key;
+    }
+    @Override
+    public boolean isIndex() {
+        return name == null && index != KEY;
+    }
+    @Override
+    public boolean isKey() {
+        return index == KEY;
+    }
+
+    /**
+     * Renders path like "members[0][1].firstName" or "scores[alice]".
+     * @return rendered path.
+     */
+    @Override
+    public String toString() {
+        int length = 0;
+        for (var segment = this; segment != null; segment = segment.parent)
+            ++length;
+        var segments = new ServicePath[length];
+        for (var segment = this; segment != null; segment = segment.parent)
+            segments[--length] = segment;
+
+        var builder = new StringBuilder();
+        for (var segment : segments) {
+            if (segment.index == KEY)
+                builder.append('[').append(segment.key).append(']');
+            else if (segment.name == null)
+                builder.append('[').append(segment.index).append(']');
+            else if (segment.parent != null)
+                builder.append('.').append(segment.name);
+            else
+                builder.append(segment.name);
+        }
+        return builder.toString();
+    }
+}
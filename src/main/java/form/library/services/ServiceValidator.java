@@ -1,15 +1,17 @@
 package form.library.services;
 
-import form.library.annotations.*;
 import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationMetrics;
+import form.library.interfaces.ValidationOptions;
 import form.library.interfaces.Validator;
-import form.library.validators.*;
+import form.library.validators.Validators;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.AnnotatedParameterizedType;
-import java.lang.reflect.AnnotatedType;
-import java.lang.reflect.Field;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * The validator that simply checks some fields
@@ -17,120 +19,478 @@ import java.util.*;
  */
 public class ServiceValidator implements Validator {
 
-    private final Map<Class<? extends Annotation>, FormValidator> annotations;       // Map of annotation types and their validators.
-    private static ServiceValidator instance;                                        // private static instance for singleton.
-    private ServiceValidator() {
-        annotations = new Validators().getAnnotations();
+    private static final ServiceValidator instance = builder().build();              // private static instance for singleton.
+    private final ClassValue<ValidationPlan> plans;                                  // Compiled validation plans of classes.
+    private final ValidationMetrics metrics;                                         // Receiver of measurements or null.
+    private final ResultCache cache;                                                 // Results of immutable objects or null.
+    private final FailedValueCapture capture;                                        // What errors keep of failed values.
+    private ServiceValidator(Builder builder) {
+        var compiler = new PlanCompiler(builder.validators, builder.strict, builder.generated, builder.specialized,
+                builder.metrics, builder.constraintEvents);
+        metrics = builder.metrics;
+        capture = builder.capture;
+        cache = builder.cacheSize > 0 ? new ResultCache(builder.cacheSize, builder.identityKeys) : null;
+        plans = new ClassValue<>() {
+            @Override
+            protected ValidationPlan computeValue(Class<?> type) {
+                return compiler.compile(type);
+            }
+        };
     }
 
+    /**
+     * @return shared validator with default settings.
+     */
     public static ServiceValidator getInstance() {
-        if (instance == null)
-            instance = new ServiceValidator();
         return instance;
     }
 
+    /**
+     * Creates builder of validator with custom settings.
+     * Every built validator has its own cache of compiled plans, so it should be reused.
+     * @return builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return what errors keep of failed values.
+     */
+    public FailedValueCapture getFailedValueCapture() {
+        return capture;
+    }
+
+    /**
+     * @return cache of results of immutable objects or null if it isn't enabled.
+     */
+    public ResultCache getResultCache() {
+        return cache;
+    }
+
     /**
      * The main method which validate specified object.
      * @param object object which should have been validated.
-     * @return all errors in the object.
+     * @return all errors in the object, empty set if there are no errors.
      */
     @Override
     public Set<ValidationError> validate(Object object) {
-        if (object != null)
-            return validateFields(object, "");
-        return new LinkedHashSet<>();
+        return validate(object, ValidationOptions.defaults());
+    }
+
+    /**
+     * Validates specified object with options.
+     * @param object object which should have been validated.
+     * @param options options such as error budget.
+     * @return errors in the object, empty set if there are no errors.
+     */
+    @Override
+    public Set<ValidationError> validate(Object object, ValidationOptions options) {
+        if (object == null)
+            return new LinkedHashSet<>();
+        if (cache == null || !plans.get(object.getClass()).immutable)
+            return validateUncached(object, options);
+
+        var errors = cache.get(object, options);
+        if (errors == null) {
+            errors = Collections.unmodifiableSet(validateUncached(object, options));
+            cache.put(object, options, errors);
+        }
+        return new LinkedHashSet<>(errors);
+    }
+
+    private Set<ValidationError> validateUncached(Object object, ValidationOptions options) {
+        var sink = new ValidationErrorSink(options, capture);
+        validate(object, null, sink);
+        return sink.getErrors();
     }
 
     /**
-     * Validates specified fields in object.
-     * @param object object to check.
-     * @param path path to the field.
-     * @return set of errors in object.
+     * Validates object into compact result, which keeps errors in primitive columns instead of error objects,
+     * e.g. when a bad import can produce millions of errors.
+     * @param object object which should have been validated.
+     * @param options options such as error budget.
+     * @return result, valid if object is null.
      */
-    private Set<ValidationError> validateFields(Object object, String path) {
-        var errors = new LinkedHashSet<ValidationError>();
-        if (object.getClass().isAnnotationPresent(Constrained.class)) {
-            Arrays.stream(object.getClass().getDeclaredFields())
-                .peek(field -> field.setAccessible(true))
-                .forEach(field -> {
-                    var customObject = getValue(object, field);
+    public ValidationResult validateCompact(Object object, ValidationOptions options) {
+        var result = new ValidationResult();
+        if (object != null)
+            validate(object, null, new ValidationErrorSink(options, result, capture));
+        return result;
+    }
 
-                    errors.addAll(validateField(customObject, field.getAnnotatedType(), path + field.getName()));
+    /**
+     * Validates object into compact result with default options.
+     * @param object object which should have been validated.
+     * @return result, valid if object is null.
+     */
+    public ValidationResult validateCompact(Object object) {
+        return validateCompact(object, ValidationOptions.defaults());
+    }
 
-                    if (customObject != null) {
-                        errors.addAll(validateFields(customObject, path + field.getName() + "."));
-                        if (field.getType().equals(List.class))
-                            errors.addAll(validateList((List<?>)customObject, field.getAnnotatedType(), path + field.getName()));
-                    }
-                });
+    /**
+     * Runs traversal of object, reports it to metrics if they are enabled
+     * and to flight recorder if ValidationEvent is enabled in running recording.
+     */
+    void validate(Object object, ServicePath path, ValidationErrorSink sink) {
+        var event = new ValidationEvent();
+        event.begin();
+        long start = metrics != null ? System.nanoTime() : 0;
+        Traversal.validate(plans, object, path, sink);
+        if (metrics != null)
+            metrics.recordValidation(object.getClass(), System.nanoTime() - start, sink.size());
+        event.end();
+        if (event.shouldCommit()) {
+            event.validatedClass = object.getClass();
+            event.fieldCount = plans.get(object.getClass()).fields.length;
+            event.errorCount = sink.size();
+            event.path = path != null ? path.toString() : "";
+            event.commit();
         }
-        return errors;
     }
 
     /**
-     * Validates specified annotations in field.
-     * @param object object which has this field.
-     * @param annotatedType annotated type of all annotations.
-     * @return set of errors in field.
+     * Validates one property of object, e.g. "items[3].price", and everything reachable from it.
+     * Only objects and containers on the path are read, other fields aren't walked.
+     * @param object root object.
+     * @param property path of property, empty for the whole object.
+     * @return errors of the property, empty if some object on the path is null.
+     * @throws IllegalArgumentException if path doesn't match fields of @Constrained classes.
      */
-    private Set<ValidationError> validateField(Object object, AnnotatedType annotatedType, String path) {
-        var errors = new LinkedHashSet<ValidationError>();
+    public Set<ValidationError> validateProperty(Object object, String property) {
+        return validateProperty(object, property, ValidationOptions.defaults());
+    }
 
-        Arrays.stream(annotatedType.getAnnotations()).forEach(annotation -> {
-            var validator = this.annotations.get(annotation.annotationType());
-            if (validator != null) {
-                var error = validator.validateValue(object, annotation, path);
-                if (error != null)
-                    errors.add(error);
-            }
-        });
+    /**
+     * Validates one property of object, e.g. "items[3].price", and everything reachable from it.
+     * @param object root object.
+     * @param property path of property, empty for the whole object.
+     * @param options options such as error budget.
+     * @return errors of the property, empty if some object on the path is null.
+     * @throws IllegalArgumentException if path doesn't match fields of @Constrained classes.
+     */
+    public Set<ValidationError> validateProperty(Object object, String property, ValidationOptions options) {
+        return validateFields(object, Set.of(property), options);
+    }
 
-        return errors;
+    /**
+     * Validates some properties of object, e.g. fields changed by PATCH request.
+     * @param object root object.
+     * @param properties paths of properties like "name" or "address.zip".
+     * @return errors of the properties in iteration order of the set.
+     * @throws IllegalArgumentException if some path doesn't match fields of @Constrained classes.
+     */
+    public Set<ValidationError> validateFields(Object object, Set<String> properties) {
+        return validateFields(object, properties, ValidationOptions.defaults());
     }
 
     /**
-     * Validates list.
-     * @param values list.
-     * @param annotationType annotation.
-     * @param path path to the element or list in recursion .
-     * @return set of errors in list.
+     * Validates some properties of object, e.g. fields changed by PATCH request.
+     * Properties inside other listed properties are validated once, as a part of the outer one.
+     * @param object root object.
+     * @param properties paths of properties like "name" or "address.zip".
+     * @param options options such as error budget shared by all properties.
+     * @return errors of the properties in iteration order of the set.
+     * @throws IllegalArgumentException if some path doesn't match fields of @Constrained classes.
      */
-    private Set<ValidationError> validateList(List<?> values, AnnotatedType annotationType, String path) {
-        var errors = new LinkedHashSet<ValidationError>();
-            for (int i = 0; i < values.size(); ++i) {
-                var element = values.get(i);
+    public Set<ValidationError> validateFields(Object object, Set<String> properties, ValidationOptions options) {
+        if (object == null)
+            return new LinkedHashSet<>();
 
-                if (element != null) {
-                    if (element.getClass().isAnnotationPresent(Constrained.class))
-                        errors.addAll(validateFields(element, String.format("%s[%d].", path, i)));
+        var paths = new LinkedHashMap<String, ServicePath>();
+        for (var property : properties) {
+            var path = ServicePath.parse(property);
+            if (path == null)
+                return validate(object, options);
+            paths.put(path.toString(), path);
+        }
+        var sink = new ValidationErrorSink(options, capture);
+        for (var property : paths.entrySet()) {
+            if (sink.isFull())
+                break;
+            if (!isNested(property.getKey(), paths.keySet()))
+                validateProperty(object, property.getValue(), sink);
+        }
+        return sink.getErrors();
+    }
+
+    private static boolean isNested(String property, Set<String> properties) {
+        for (var other : properties) {
+            if (other.length() < property.length() && ServicePath.isUnder(property, other))
+                return true;
+        }
+        return false;
+    }
 
-                    AnnotatedType annotatedType = null;
-                    if (annotationType instanceof AnnotatedParameterizedType)
-                        annotatedType = ((AnnotatedParameterizedType) annotationType).getAnnotatedActualTypeArguments()[0];
+    /**
+     * Validates property of object and everything reachable from it.
+     * @param object root object.
+     * @param property path of property from the root.
+     * @param sink accumulator of errors.
+     */
+    void validateProperty(Object object, ServicePath property, ValidationErrorSink sink) {
+        var target = PropertyTarget.resolve(plans, object, property);
+        if (target != null)
+            Traversal.validate(plans, target, sink);
+    }
 
-                    if (annotatedType != null) {
-                        errors.addAll(validateField(element, annotatedType, String.format("%s[%d]", path, i)));
+    /**
+     * Creates session which validates one edited object incrementally.
+     * @return new session with default options.
+     */
+    public ValidationSession session() {
+        return session(ValidationOptions.defaults());
+    }
 
-                        if (element instanceof List)
-                            errors.addAll(validateList((List<?>)element, annotatedType, String.format("%s[%d]", path, i)));
-                    }
-                }
-            }
-        return errors;
+    /**
+     * Creates session which validates one edited object incrementally.
+     * @param options options of every validation of the session.
+     * @return new session.
+     */
+    public ValidationSession session(ValidationOptions options) {
+        return new ValidationSession(this, options);
+    }
+
+    /**
+     * Validates objects of stream one by one, e.g. records of a large import.
+     * Errors are passed to the action as soon as the object is validated, so neither objects
+     * nor errors are retained. Paths of errors start with index of the object, e.g. "[42].name".
+     * @param objects stream of objects, which is consumed sequentially but not closed.
+     * @param action consumer of errors.
+     * @return number of reported errors.
+     */
+    public long validateEach(Stream<?> objects, Consumer<? super ValidationError> action) {
+        return validateEach(objects.iterator(), ValidationOptions.defaults(), action);
+    }
+
+    /**
+     * Validates objects of iterator one by one, e.g. records of a large import.
+     * Errors are passed to the action as soon as the object is validated, so neither objects
+     * nor errors are retained. Paths of errors start with index of the object, e.g. "[42].name".
+     * The error budget of options is shared by all objects: iteration stops when it is exhausted.
+     * @param objects iterator of objects, null objects are skipped.
+     * @param options options such as error budget.
+     * @param action consumer of errors.
+     * @return number of reported errors.
+     */
+    public long validateEach(Iterator<?> objects, ValidationOptions options, Consumer<? super ValidationError> action) {
+        int left = options.getMaxErrors();
+        for (int index = 0; left > 0 && objects.hasNext(); ++index) {
+            var object = objects.next();
+            if (object == null)
+                continue;
+
+            var sink = new ValidationErrorSink(options, left, capture);
+            validate(object, ServicePath.index(null, index), sink);
+            for (int i = 0; i < sink.size(); ++i)
+                action.accept(sink.get(i));
+            left -= sink.size();
+        }
+        return options.getMaxErrors() - left;
+    }
+
+    /**
+     * Validates independent objects concurrently on virtual threads
+     * (or in the common pool if virtual threads aren't available).
+     * @param objects objects which should have been validated.
+     * @return errors of every object in iteration order of the collection.
+     */
+    public List<Set<ValidationError>> validateAll(Collection<?> objects) {
+        return validateAll(objects, ValidationOptions.defaults(), BatchExecutor.instance);
     }
 
     /**
-     * Takes value of field in object.
-     * @param object object which consist this field.
-     * @param field field in the object.
-     * @return value.
+     * Validates independent objects concurrently.
+     * @param objects objects which should have been validated.
+     * @param options options of every validation.
+     * @param executor executor which runs validations.
+     * @return errors of every object in iteration order of the collection.
      */
-    private Object getValue(Object object, Field field) {
+    public List<Set<ValidationError>> validateAll(Collection<?> objects, ValidationOptions options, Executor executor) {
         try {
-            return field.get(object);
-        } catch (IllegalAccessException ex) {
-            System.out.printf("There are no such field: %s in the object %s", field.getName(), object.getClass().getSimpleName());
+            return validateAllAsync(objects, options, executor).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            if (ex.getCause() instanceof Error)
+                throw (Error) ex.getCause();
+            throw ex;
+        }
+    }
+
+    /**
+     * Validates independent objects asynchronously on virtual threads
+     * (or in the common pool if virtual threads aren't available).
+     * @param objects objects which should have been validated.
+     * @return future of errors of every object in iteration order of the collection.
+     */
+    public CompletableFuture<List<Set<ValidationError>>> validateAllAsync(Collection<?> objects) {
+        return validateAllAsync(objects, ValidationOptions.defaults(), BatchExecutor.instance);
+    }
+
+    /**
+     * Validates independent objects asynchronously.
+     * @param objects objects which should have been validated.
+     * @param options options of every validation.
+     * @param executor executor which runs validations.
+     * @return future of errors of every object in iteration order of the collection.
+     */
+    public CompletableFuture<List<Set<ValidationError>>> validateAllAsync(Collection<?> objects, ValidationOptions options, Executor executor) {
+        var futures = new ArrayList<CompletableFuture<Set<ValidationError>>>(objects.size());
+        for (var object : objects)
+            futures.add(CompletableFuture.supplyAsync(() -> validate(object, options), executor));
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            var results = new ArrayList<Set<ValidationError>>(futures.size());
+            for (var future : futures)
+                results.add(future.join());
+            return results;
+        });
+    }
+
+    /**
+     * Default executor of batch validation, created on first use.
+     */
+    private static final class BatchExecutor {
+        private static final Executor instance = create();
+
+        /**
+         * Creates virtual thread per task executor on JDK 21+ and falls back to the common pool.
+         * @return executor.
+         */
+        private static Executor create() {
+            try {
+                var factory = MethodHandles.publicLookup().findStatic(Executors.class,
+                        "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+                return (Executor) factory.invoke();
+            } catch (Throwable ex) {
+                return ForkJoinPool.commonPool();
+            }
+        }
+    }
+
+    public static final class Builder {
+        private boolean strict;
+        private Validators validators = Validators.defaults();
+        private boolean generated = true;
+        private boolean specialized = true;
+        private ValidationMetrics metrics;
+        private boolean constraintEvents;
+        private int cacheSize;
+        private FailedValueCapture capture = FailedValueCapture.SUMMARY;
+        private boolean identityKeys;
+
+        private Builder() { }
+
+        /**
+         * Sets registry of constraints.
+         * By default built-in constraints and constraints of ConstraintProvider services are used.
+         * @param validators registry.
+         * @return this builder.
+         */
+        public Builder validators(Validators validators) {
+            this.validators = validators;
+            return this;
+        }
+
+        /**
+         * Sets whether misapplied annotations, e.g. AnyOf on int field, are errors.
+         * In strict mode validate throws IllegalStateException for such classes,
+         * otherwise the annotation is ignored and reported once.
+         * @param strict strict mode.
+         * @return this builder.
+         */
+        public Builder strict(boolean strict) {
+            this.strict = strict;
+            return this;
+        }
+
+        /**
+         * Sets whether validators generated by ConstrainedProcessor are used for classes which have them.
+         * Generated validators are used by default, classes without them are validated by reflection.
+         * @param generated whether generated validators are used.
+         * @return this builder.
+         */
+        public Builder generated(boolean generated) {
+            this.generated = generated;
+            return this;
+        }
+
+        /**
+         * Sets whether checks of fields are specialized per class on first use.
+         * Runs of fields which can't hold nested objects or containers are compiled into hidden classes
+         * which call constraint checks directly, other fields are walked as usual.
+         * @param specialized whether fields are specialized, true by default.
+         * @return this builder.
+         */
+        public Builder specialized(boolean specialized) {
+            this.specialized = specialized;
+            return this;
+        }
+
+        /**
+         * Sets receiver of measurements: every validated object and every constraint check is reported to it.
+         * Validators without metrics aren't instrumented at all.
+         * @param metrics metrics, e.g. InMemoryMetrics, or null to disable them.
+         * @return this builder.
+         */
+        public Builder metrics(ValidationMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Sets whether every constraint check emits flight recorder event form.library.Constraint.
+         * The event is disabled in default JFR settings, so it has to be enabled in recording settings too.
+         * Validation event form.library.Validation of every validated object is emitted by all validators.
+         * @param constraintEvents whether checks are instrumented with events.
+         * @return this builder.
+         */
+        public Builder constraintEvents(boolean constraintEvents) {
+            this.constraintEvents = constraintEvents;
+            return this;
+        }
+
+        /**
+         * Enables cache of results of immutable objects, i.e. @Constrained(immutable = true) classes and records of immutable components,
+         * which are keyed by equals and hashCode.
+         * @param maximumSize maximal number of cached results, 0 disables the cache.
+         * @return this builder.
+         */
+        public Builder resultCache(int maximumSize) {
+            return resultCache(maximumSize, false);
+        }
+
+        /**
+         * Enables cache of results of immutable objects, i.e. @Constrained(immutable = true) classes and records of immutable components.
+         * Results are cached per error budget and reporting of shared instances, so equal options share results.
+         * @param maximumSize maximal number of cached results, 0 disables the cache.
+         * @param identityKeys whether objects are keyed by identity instead of equals and hashCode.
+         * @return this builder.
+         */
+        public Builder resultCache(int maximumSize, boolean identityKeys) {
+            if (maximumSize < 0)
+                throw new IllegalArgumentException("Maximum size of cache can't be negative.");
+            this.cacheSize = maximumSize;
+            this.identityKeys = identityKeys;
+            return this;
+        }
+
+        /**
+         * Sets what errors keep of failed values. By default they keep short summaries,
+         * so errors don't hold collections and other objects of validated graphs.
+         * @param capture capture policy, FULL to keep the values themselves.
+         * @return this builder.
+         */
+        public Builder failedValues(FailedValueCapture capture) {
+            if (capture == null)
+                throw new IllegalArgumentException("Capture policy can't be null.");
+            this.capture = capture;
+            return this;
+        }
+
+        public ServiceValidator build() {
+            return new ServiceValidator(this);
         }
-        return null;
     }
-}
\ No newline at end of file
+}
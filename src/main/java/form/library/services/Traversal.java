@@ -0,0 +1,638 @@
+package form.library.services;
+
+import form.library.interfaces.ValidationPath;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Walk over an object graph with an explicit stack of frames.
+ * Deep graphs can't overflow the thread stack, every @Constrained instance is entered once,
+ * so cycles are cut and shared instances are validated only under the first path.
+ * Containers are read by index only if they support fast random access, otherwise by iterator.
+ * Traversals are cached per thread and reused, so frames aren't allocated on every validation.
+ */
+final class Traversal {
+    private static final int INDEXED = 0;                   // Random access list or object array read by index.
+    private static final int ITERATED = 1;                  // Any other iterable read by its iterator.
+    private static final int MAP = 2;                       // Map whose values are read by iterator of entries.
+    private static final int PRIMITIVE_ARRAY = 3;           // Array of primitives read by index.
+
+    private static final int MIN_CHUNK_SIZE = 1024;         // Minimal number of elements validated by one task.
+    private static final int MAX_CACHED_DEPTH = 256;        // Stacks deeper than this aren't kept between validations.
+    private static final ThreadLocal<Traversal> cache = ThreadLocal.withInitial(Traversal::new);
+    private static final Object OWNER = new Object();      // Mark of objects on the path to validated property.
+
+    private ClassValue<ValidationPlan> plans;
+    private ValidationErrorSink sink;
+    private Traversal parent;                           // Traversal which forked this one for a chunk of list.
+    private boolean allPaths;                           // Whether errors of shared instances are repeated under every path.
+    private IdentityHashMap<Object, Object> visited;    // Entered objects, mapped to SharedObject in all paths mode and in chunks.
+    private Frame[] stack = new Frame[16];
+    private int depth;
+    private boolean busy;
+
+    private Traversal() { }
+
+    /**
+     * Validates object and all objects reachable from it.
+     * @param plans compiled plans of classes.
+     * @param object non null object.
+     * @param path path of the object, null for a single validated object.
+     * @param sink accumulator of errors.
+     */
+    static void validate(ClassValue<ValidationPlan> plans, Object object, ServicePath path, ValidationErrorSink sink) {
+        var traversal = acquire(plans, sink, null);
+        try {
+            traversal.pushObject(object, plans.get(object.getClass()), path);
+            sink.entered(object, path);
+            traversal.walk();
+        } finally {
+            traversal.release();
+        }
+    }
+
+    /**
+     * Validates value of property and all objects reachable from it.
+     * Objects on the path to the property are treated as entered, so cycles back to them are cut
+     * as they are when the whole graph is validated.
+     * @param plans compiled plans of classes.
+     * @param target resolved property.
+     * @param sink accumulator of errors.
+     */
+    static void validate(ClassValue<ValidationPlan> plans, PropertyTarget target, ValidationErrorSink sink) {
+        var traversal = acquire(plans, sink, null);
+        try {
+            traversal.ensureVisited();
+            for (var owner : target.owners)
+                traversal.visited.put(owner, OWNER);
+            if (target.type != null)
+                traversal.validateValue(target.value, target.type, target.path);
+            if (target.value == null)
+                return;
+            if (!sink.isFull() && traversal.enterObject(target.value, target.path))
+                traversal.walk();
+            if (!sink.isFull() && target.container && target.type != null && traversal.enterContainer(target.value, target.type, target.path))
+                traversal.walk();
+        } finally {
+            traversal.release();
+        }
+    }
+
+    private static Traversal acquire(ClassValue<ValidationPlan> plans, ValidationErrorSink sink, Traversal parent) {
+        var traversal = cache.get();
+        if (traversal.busy)
+            traversal = new Traversal();
+        traversal.busy = true;
+        traversal.plans = plans;
+        traversal.sink = sink;
+        traversal.parent = parent;
+        traversal.allPaths = sink.getOptions().isReportSharedAtAllPaths();
+        return traversal;
+    }
+
+    private void release() {
+        while (depth > 0)
+            stack[--depth].clear();
+        if (stack.length > MAX_CACHED_DEPTH)
+            stack = new Frame[16];
+        plans = null;
+        sink = null;
+        parent = null;
+        visited = null;
+        busy = false;
+    }
+
+    /**
+     * Runs frames until the stack is empty or the error budget is exhausted.
+     */
+    private void walk() {
+        while (depth > 0 && !sink.isFull()) {
+            var frame = stack[depth - 1];
+            if (!(frame.plan != null ? stepObject(frame) : stepContainer(frame)))
+                pop();
+        }
+    }
+
+    /**
+     * Validates fields of object until some nested object or container has to be entered.
+     * @param frame frame of object.
+     * @return true if child frame was pushed, false if object is done.
+     */
+    private boolean stepObject(Frame frame) {
+        var fields = frame.plan.fields;
+        while (frame.cursor < fields.length && !sink.isFull()) {
+            var field = fields[frame.cursor];
+            if (frame.stage == 0) {
+                var block = frame.plan.blocks != null ? frame.plan.blocks[frame.cursor] : null;
+                if (block != null) {
+                    block.validate(frame.target, frame.path, sink);
+                    frame.cursor = block.end;
+                    continue;
+                }
+                if (field.kind != FieldPlan.REFERENCE) {
+                    validatePrimitive(frame.target, field, frame.path);
+                    frame.next();
+                    continue;
+                }
+                var value = field.accessor.get(frame.target);
+                var fieldPath = ServicePath.property(frame.path, field.name);
+                validateValue(value, field.type, fieldPath);
+                if (value == null) {
+                    frame.next();
+                    continue;
+                }
+                frame.value = value;
+                frame.valuePath = fieldPath;
+                frame.stage = 1;
+                if (enterObject(value, fieldPath))
+                    return true;
+            }
+            if (frame.stage == 1) {
+                frame.stage = 2;
+                if (field.container && enterContainer(frame.value, field.type, frame.valuePath))
+                    return true;
+            }
+            frame.next();
+        }
+        return false;
+    }
+
+    /**
+     * Validates elements of container until some nested object or container has to be entered.
+     * @param frame frame of container.
+     * @return true if child frame was pushed, false if container is done.
+     */
+    private boolean stepContainer(Frame frame) {
+        var elementType = frame.type.element;
+        while (!sink.isFull()) {
+            if (frame.stage == 0) {
+                if (!frame.hasNext())
+                    return false;
+                var element = frame.nextElement();
+                if (element == null) {
+                    frame.next();
+                    continue;
+                }
+                frame.value = element;
+                frame.valuePath = frame.container == MAP ? ServicePath.key(frame.path, frame.key) : ServicePath.index(frame.path, frame.cursor);
+                frame.stage = 1;
+                if (enterObject(element, frame.valuePath))
+                    return true;
+            }
+            if (frame.stage == 1) {
+                frame.stage = 2;
+                if (elementType != null) {
+                    validateValue(frame.value, elementType, frame.valuePath);
+                    if (enterContainer(frame.value, elementType, frame.valuePath))
+                        return true;
+                }
+            }
+            frame.next();
+        }
+        return false;
+    }
+
+    /**
+     * Validates numeric primitive field without boxing its value.
+     * Value is boxed and path is created only if some constraint fails.
+     * @param object object which has this field.
+     * @param field plan of field of LONG or DOUBLE kind.
+     * @param path path to the object or null for the root.
+     */
+    private void validatePrimitive(Object object, FieldPlan field, ServicePath path) {
+        var constraints = field.type.constraints;
+        if (constraints.length == 0)
+            return;
+
+        long longValue = 0;
+        double doubleValue = 0;
+        if (field.kind == FieldPlan.LONG)
+            longValue = field.accessor.getLong(object);
+        else
+            doubleValue = field.accessor.getDouble(object);
+
+        for (var constraint : constraints) {
+            if (sink.isFull())
+                return;
+            boolean valid = field.kind == FieldPlan.LONG ? constraint.isValid(longValue) : constraint.isValid(doubleValue);
+            if (!valid)
+                sink.add(constraint.validate(field.accessor.get(object), ServicePath.property(path, field.name)));
+        }
+    }
+
+    /**
+     * Validates compiled constraints of the value.
+     * @param value value of field or element.
+     * @param type compiled plan of value type.
+     * @param path path to the value.
+     */
+    private void validateValue(Object value, TypePlan type, ServicePath path) {
+        for (var constraint : type.constraints) {
+            if (sink.isFull())
+                return;
+            sink.add(constraint.validate(value, path));
+        }
+    }
+
+    /**
+     * Pushes frame of @Constrained object unless it was already entered.
+     * Errors of already validated object are repeated under the new path in all paths mode.
+     * @param object non null value.
+     * @param path path to the value.
+     * @return true if frame was pushed.
+     */
+    private boolean enterObject(Object object, ServicePath path) {
+        var plan = plans.get(object.getClass());
+        if (!plan.isConstrained())
+            return false;
+
+        ensureVisited();
+        var seen = lookup(object);
+        if (seen != null) {
+            if (seen != OWNER && !sink.hasShared() && !isOnStack(object))
+                sink.markShared();
+            if (allPaths && seen instanceof SharedObject)
+                repeat((SharedObject) seen, path);
+            return false;
+        }
+        visited.put(object, tracksRanges() ? new SharedObject(path, sink) : Boolean.TRUE);
+        sink.entered(object, path);
+        pushObject(object, plan, path);
+        return true;
+    }
+
+    /**
+     * Pushes frame of container or validates it in parallel if it is a large random access list.
+     * Other iterables and maps are read by iterator, so they are never indexed.
+     * @param value value of field or element.
+     * @param type compiled plan of container type.
+     * @param path path to the container.
+     * @return true if frame was pushed, false if value isn't a container or there is nothing to validate.
+     */
+    private boolean enterContainer(Object value, TypePlan type, ServicePath path) {
+        if (value instanceof Object[])
+            value = Arrays.asList((Object[]) value);
+
+        if (value instanceof List && value instanceof RandomAccess) {
+            var values = (List<?>) value;
+            int size = values.size();
+            if (size == 0)
+                return false;
+            if (size >= sink.getOptions().getParallelThreshold()) {
+                validateInParallel(values, type, path);
+                return false;
+            }
+            push(values, INDEXED, type, path, 0, size);
+        } else if (value instanceof Iterable) {
+            var iterator = ((Iterable<?>) value).iterator();
+            if (!iterator.hasNext())
+                return false;
+            push(iterator, ITERATED, type, path, 0, Integer.MAX_VALUE);
+        } else if (value instanceof Map) {
+            var map = (Map<?, ?>) value;
+            if (map.isEmpty())
+                return false;
+            push(map.entrySet().iterator(), MAP, type, path, 0, Integer.MAX_VALUE);
+        } else if (value.getClass().isArray()) {
+            // Primitives can't be @Constrained objects or containers, so only their own constraints are checked.
+            int length = Array.getLength(value);
+            if (length == 0 || type.element == null || type.element.constraints.length == 0)
+                return false;
+            push(value, PRIMITIVE_ARRAY, type, path, 0, length);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Validates large list by chunks in the pool of options.
+     * Errors of chunks are merged in index order.
+     */
+    private void validateInParallel(List<?> values, TypePlan type, ServicePath path) {
+        ensureVisited();
+        var pool = sink.getOptions().getPool();
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, values.size() / (pool.getParallelism() * 4));
+        var chunks = new ValidationErrorSink[(values.size() + chunkSize - 1) / chunkSize];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        var entered = (IdentityHashMap<Object, Object>[]) new IdentityHashMap[chunks.length];
+
+        pool.invoke(new ListChunks(this, values, type, path, chunks, entered, chunkSize, 0, chunks.length));
+        for (int i = 0; i < chunks.length; ++i) {
+            if (allPaths)
+                sink.addAll(chunks[i]);
+            else
+                merge(chunks[i], entered[i]);
+        }
+    }
+
+    /**
+     * Adds errors of chunk except errors of objects which were entered by this traversal or by previous chunks,
+     * so shared instances are reported once under the first path whatever the number of chunks is.
+     * In all paths mode errors of every path are reported by chunks themselves, so they aren't merged this way.
+     * @param chunk sink of chunk.
+     * @param entered objects entered by chunk mapped to ranges of their errors in its sink or null.
+     */
+    private void merge(ValidationErrorSink chunk, IdentityHashMap<Object, Object> entered) {
+        if (entered == null) {
+            sink.addAll(chunk);
+            return;
+        }
+        sink.addEntered(chunk);
+        if (chunk.hasShared())
+            sink.markShared();
+        int size = chunk.size();
+        var dropped = new boolean[size];
+        var added = new ArrayList<Map.Entry<Object, Object>>();
+        for (var entry : entered.entrySet()) {
+            var range = (SharedObject) entry.getValue();
+            if (lookup(entry.getKey()) != null) {
+                Arrays.fill(dropped, range.start, range.end >= 0 ? range.end : size, true);
+                sink.markShared();
+            } else
+                added.add(entry);
+        }
+
+        int base = sink.size();
+        var kept = new int[size + 1];   // Number of errors of chunk which are kept before every error.
+        for (int i = 0; i < size; ++i) {
+            kept[i + 1] = kept[i];
+            if (!dropped[i]) {
+                sink.addCopy(chunk.get(i));
+                ++kept[i + 1];
+            }
+        }
+        for (var entry : added) {
+            var range = (SharedObject) entry.getValue();
+            visited.put(entry.getKey(), tracksRanges()
+                    ? new SharedObject(range.path, sink, base + kept[range.start], base + kept[range.end >= 0 ? range.end : size])
+                    : Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Whether entered objects are mapped to ranges of their errors, i.e. in all paths mode
+     * and in chunks, whose errors are merged by forking traversal.
+     */
+    private boolean tracksRanges() {
+        return allPaths || parent != null;
+    }
+
+    /**
+     * Creates map of entered objects, which also contains the root object if it was pushed.
+     */
+    private void ensureVisited() {
+        if (visited != null)
+            return;
+        visited = new IdentityHashMap<>();
+        var root = stack[0];
+        if (depth > 0 && root.plan != null)
+            visited.put(root.target, tracksRanges() ? new SharedObject(root.path, sink) : Boolean.TRUE);
+    }
+
+    /**
+     * Finds object among objects entered by this traversal or the traversals which forked it.
+     * @param object object.
+     * @return TRUE, SharedObject or null if object wasn't entered.
+     */
+    private Object lookup(Object object) {
+        for (var traversal = this; traversal != null; traversal = traversal.parent) {
+            var seen = traversal.visited != null ? traversal.visited.get(object) : null;
+            if (seen != null)
+                return seen;
+        }
+        return null;
+    }
+
+    /**
+     * Whether object is validated by this traversal or by traversals which forked it, i.e. it is reached by a cycle.
+     */
+    private boolean isOnStack(Object object) {
+        for (var traversal = this; traversal != null; traversal = traversal.parent) {
+            for (int i = 0; i < traversal.depth; ++i) {
+                if (traversal.stack[i].plan != null && traversal.stack[i].target == object)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Repeats errors of validated shared object under new path.
+     * Nothing is repeated while the object is still validated, i.e. for cycles.
+     */
+    private void repeat(SharedObject shared, ServicePath path) {
+        for (int i = shared.start; i < shared.end && !sink.isFull(); ++i) {
+            var error = shared.sink.get(i);
+            var propertyPath = rebase(ServiceError.pathOf(error), shared.path, path);
+            sink.addCopy(error instanceof ServiceError
+                    ? ((ServiceError) error).at(propertyPath)
+                    : new ServiceError(propertyPath, error.getMessage(), error.getFailedValue()));
+        }
+    }
+
+    /**
+     * Replaces prefix of path. Segments of prefix are counted rather than compared,
+     * since compact results recreate paths of errors on every access.
+     * @param path path inside shared object.
+     * @param from path of shared object where errors were found.
+     * @param to new path of shared object.
+     * @return path with replaced prefix.
+     */
+    private static ServicePath rebase(ValidationPath path, ServicePath from, ServicePath to) {
+        int length = 0;
+        for (var segment = path; segment != null; segment = segment.getParent())
+            ++length;
+        for (var segment = from; segment != null; segment = segment.getParent())
+            --length;
+        var suffix = new ValidationPath[Math.max(length, 0)];
+        var segment = path;
+        for (int i = suffix.length; i > 0; segment = segment.getParent())
+            suffix[--i] = segment;
+
+        var result = to;
+        for (var part : suffix) {
+            if (part.isKey())
+                result = ServicePath.key(result, part.getKey());
+            else if (part.isIndex())
+                result = ServicePath.index(result, part.getIndex());
+            else
+                result = ServicePath.property(result, part.getName());
+        }
+        return result;
+    }
+
+    private void pushObject(Object object, ValidationPlan plan, ServicePath path) {
+        var frame = push(object, path, 0, plan.fields.length);
+        frame.plan = plan;
+    }
+
+    private void push(Object target, int container, TypePlan type, ServicePath path, int from, int to) {
+        var frame = push(target, path, from, to);
+        frame.container = container;
+        frame.type = type;
+    }
+
+    private Frame push(Object target, ServicePath path, int from, int to) {
+        if (depth == stack.length)
+            stack = Arrays.copyOf(stack, depth * 2);
+        var frame = stack[depth];
+        if (frame == null)
+            frame = stack[depth] = new Frame();
+        frame.target = target;
+        frame.path = path;
+        frame.cursor = from;
+        frame.end = to;
+        ++depth;
+        return frame;
+    }
+
+    private void pop() {
+        var frame = stack[--depth];
+        if (tracksRanges() && frame.plan != null && visited != null) {
+            var shared = visited.get(frame.target);
+            if (shared instanceof SharedObject)
+                ((SharedObject) shared).end = sink.size();
+        }
+        frame.clear();
+    }
+
+    /**
+     * State of validation of one object or container.
+     */
+    private static final class Frame {
+        Object target;          // Validated object, list, array or iterator of container.
+        ValidationPlan plan;    // Plan of object or null for container.
+        TypePlan type;          // Plan of container type or null for object.
+        int container;          // How elements of container are read: INDEXED, ITERATED, MAP or PRIMITIVE_ARRAY.
+        ServicePath path;       // Path of object or container.
+        int cursor, end;        // Index of current field or element and end of range.
+        int stage;              // Progress of current field or element.
+        Object value;           // Value of current field or element.
+        Object key;             // Key of current map value.
+        ServicePath valuePath;  // Path of current field or element.
+
+        boolean hasNext() {
+            if (container == ITERATED || container == MAP)
+                return ((Iterator<?>) target).hasNext();
+            return cursor < end;
+        }
+
+        Object nextElement() {
+            switch (container) {
+                case INDEXED:
+                    return ((List<?>) target).get(cursor);
+                case ITERATED:
+                    return ((Iterator<?>) target).next();
+                case MAP:
+                    var entry = (Map.Entry<?, ?>) ((Iterator<?>) target).next();
+                    key = entry.getKey();
+                    return entry.getValue();
+                default:
+                    return Array.get(target, cursor);
+            }
+        }
+
+        void next() {
+            ++cursor;
+            stage = 0;
+            value = null;
+            key = null;
+            valuePath = null;
+        }
+
+        void clear() {
+            target = null;
+            plan = null;
+            type = null;
+            path = null;
+            stage = 0;
+            value = null;
+            key = null;
+            valuePath = null;
+        }
+    }
+
+    /**
+     * Object which was entered in all paths mode or in chunk with range of its errors in sink.
+     */
+    private static final class SharedObject {
+        final ServicePath path;
+        final ValidationErrorSink sink;
+        final int start;
+        int end = -1;   // -1 while object is validated.
+
+        SharedObject(ServicePath path, ValidationErrorSink sink) {
+            this.path = path;
+            this.sink = sink;
+            this.start = sink.size();
+        }
+
+        SharedObject(ServicePath path, ValidationErrorSink sink, int start, int end) {
+            this.path = path;
+            this.sink = sink;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Task which validates range of list chunks.
+     * Every chunk collects errors into its own sink, which are merged in index order afterwards.
+     * Chunks see objects entered by the forking traversal, so cycles through the list are cut too,
+     * objects entered by chunks are returned, so errors of objects shared by chunks are merged once.
+     */
+    private static final class ListChunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Traversal traversal;          // Traversal which forked chunks.
+        private final List<?> values;
+        private final TypePlan type;
+        private final ServicePath path;
+        private final ValidationErrorSink[] chunks; // Sinks of chunks.
+        private final IdentityHashMap<Object, Object>[] entered;   // Objects entered by chunks.
+        private final int chunkSize, from, to;      // Size of chunk and range of chunks of this task.
+
+        private ListChunks(Traversal traversal, List<?> values, TypePlan type, ServicePath path,
+                           ValidationErrorSink[] chunks, IdentityHashMap<Object, Object>[] entered, int chunkSize, int from, int to) {
+            this.traversal = traversal;
+            this.values = values;
+            this.type = type;
+            this.path = path;
+            this.chunks = chunks;
+            this.entered = entered;
+            this.chunkSize = chunkSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ListChunks(traversal, values, type, path, chunks, entered, chunkSize, from, middle),
+                          new ListChunks(traversal, values, type, path, chunks, entered, chunkSize, middle, to));
+                return;
+            }
+
+            var chunk = traversal.sink.fork();
+            var chunkTraversal = acquire(traversal.plans, chunk, traversal);
+            try {
+                chunkTraversal.push(values, INDEXED, type, path, from * chunkSize, Math.min(values.size(), (from + 1) * chunkSize));
+                chunkTraversal.walk();
+                entered[from] = chunkTraversal.visited;
+            } finally {
+                chunkTraversal.release();
+            }
+            chunks[from] = chunk;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package form.library.services;
+
+/**
+ * Compiled constraints of an annotated type and,
+ * for parameterized and array types, of its element type.
+ */
+final class TypePlan {
+    final Constraint[] constraints;     // Constraints of the type itself.
+    final TypePlan element;             // Plan of elements or map values, null for other types.
+
+    TypePlan(Constraint[] constraints, TypePlan element) {
+        this.constraints = constraints;
+        this.element = element;
+    }
+}
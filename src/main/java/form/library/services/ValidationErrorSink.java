@@ -0,0 +1,210 @@
+package form.library.services;
+
+import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationOptions;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Accumulator of errors which is passed down the whole traversal.
+ * The list of errors is created only when the first error is found.
+ * When the error budget is exhausted, the traversal should stop.
+ */
+final class ValidationErrorSink {
+    private final ValidationOptions options;
+    private final int maxErrors;    // Budget of errors.
+    private final ValidationResult result;  // Columns which receive errors instead of the list or null.
+    private final FailedValueCapture capture;
+    private List<ValidationError> errors;
+    private boolean shared;         // Whether some instance was reached by several paths.
+    private Map<Object, ServicePath> entered;   // Entered @Constrained instances with their paths or null if they aren't tracked.
+
+    /**
+     * @param options options of the validation run.
+     * @param capture what errors keep of failed values.
+     */
+    ValidationErrorSink(ValidationOptions options, FailedValueCapture capture) {
+        this(options, options.getMaxErrors(), capture);
+    }
+
+    /**
+     * Creates sink with the part of error budget which is left, e.g. for next object of a stream.
+     * @param options options of the validation run.
+     * @param maxErrors budget of errors of this sink.
+     * @param capture what errors keep of failed values.
+     */
+    ValidationErrorSink(ValidationOptions options, int maxErrors, FailedValueCapture capture) {
+        this(options, maxErrors, null, capture);
+    }
+
+    /**
+     * Creates sink which decomposes errors into compact result as soon as they are found.
+     * @param options options of the validation run.
+     * @param result empty result.
+     * @param capture what errors keep of failed values.
+     */
+    ValidationErrorSink(ValidationOptions options, ValidationResult result, FailedValueCapture capture) {
+        this(options, options.getMaxErrors(), result, capture);
+    }
+
+    private ValidationErrorSink(ValidationOptions options, int maxErrors, ValidationResult result, FailedValueCapture capture) {
+        this.options = options;
+        this.maxErrors = maxErrors;
+        this.result = result;
+        this.capture = capture;
+    }
+
+    /**
+     * @return options of the validation run.
+     */
+    ValidationOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Creates empty sink with the same options for a part of traversal run by another thread.
+     * @return new sink.
+     */
+    ValidationErrorSink fork() {
+        var fork = new ValidationErrorSink(options, capture);
+        if (entered != null)
+            fork.trackEntered();
+        return fork;
+    }
+
+    /**
+     * Adds error found during traversal, its failed value is replaced according to the capture policy.
+     * @param error error or null if value is correct.
+     */
+    void add(ValidationError error) {
+        if (error == null || isFull())
+            return;
+        var value = error.getFailedValue();
+        var captured = capture.capture(value);
+        if (captured != value) {
+            error = error instanceof ServiceError
+                    ? ((ServiceError) error).withFailedValue(captured)
+                    : new ServiceError(ServiceError.pathOf(error), error.getMessage(), captured);
+        }
+        addCopy(error);
+    }
+
+    /**
+     * Adds error which was already added to some sink of this run, e.g. by a forked sink, so its value is captured.
+     * @param error error.
+     */
+    void addCopy(ValidationError error) {
+        if (isFull())
+            return;
+        if (result != null) {
+            result.add(error);
+            return;
+        }
+        if (errors == null)
+            errors = new ArrayList<>();
+        errors.add(error);
+    }
+
+    /**
+     * Adds errors of forked sink keeping their order.
+     * @param other sink returned by fork().
+     */
+    void addAll(ValidationErrorSink other) {
+        addEntered(other);
+        shared |= other.shared;
+        if (other.errors == null)
+            return;
+        for (var error : other.errors) {
+            if (isFull())
+                return;
+            addCopy(error);
+        }
+    }
+
+    /**
+     * Starts tracking of entered @Constrained instances, e.g. for sessions which revalidate parts of graph.
+     */
+    void trackEntered() {
+        entered = new IdentityHashMap<>();
+    }
+
+    /**
+     * Notes that @Constrained instance is validated under path, if entered instances are tracked.
+     * @param object instance.
+     * @param path path of instance, null for the root.
+     */
+    void entered(Object object, ServicePath path) {
+        if (entered != null)
+            entered.putIfAbsent(object, path);
+    }
+
+    /**
+     * Adds instances entered by forked sink, instances which are already entered keep their paths.
+     * @param other sink returned by fork().
+     */
+    void addEntered(ValidationErrorSink other) {
+        if (entered != null && other.entered != null)
+            other.entered.forEach(entered::putIfAbsent);
+    }
+
+    /**
+     * @return entered @Constrained instances with their paths, empty if they aren't tracked.
+     */
+    Map<Object, ServicePath> getEntered() {
+        return entered != null ? entered : Map.of();
+    }
+
+    /**
+     * Notes that some @Constrained instance was reached by several paths, not counting cycles.
+     */
+    void markShared() {
+        shared = true;
+    }
+
+    /**
+     * @return true if some @Constrained instance was reached by several paths, not counting cycles.
+     */
+    boolean hasShared() {
+        return shared;
+    }
+
+    /**
+     * Whether the error budget is exhausted.
+     * @return true if no more errors will be accepted.
+     */
+    boolean isFull() {
+        return size() >= maxErrors;
+    }
+
+    /**
+     * @return number of collected errors.
+     */
+    int size() {
+        if (result != null)
+            return result.errorCount();
+        return errors != null ? errors.size() : 0;
+    }
+
+    /**
+     * @param index index of error in order they were found.
+     * @return error.
+     */
+    ValidationError get(int index) {
+        return result != null ? result.get(index) : errors.get(index);
+    }
+
+    /**
+     * Returns collected errors.
+     * @return new mutable set of errors in order they were found.
+     */
+    Set<ValidationError> getErrors() {
+        if (result != null)
+            return new LinkedHashSet<>(result.getErrors());
+        return errors != null ? new LinkedHashSet<>(errors) : new LinkedHashSet<>();
+    }
+}
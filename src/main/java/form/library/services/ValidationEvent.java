@@ -0,0 +1,30 @@
+package form.library.services;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of validation of one object and everything reachable from it.
+ * It's enabled by default in JFR settings, without a running recording it costs nothing.
+ */
+@Name("form.library.Validation")
+@Label("Validation")
+@Category("Forms Validator")
+@Description("Validation of one object by ServiceValidator")
+final class ValidationEvent extends jdk.jfr.Event {
+    @Label("Validated Class")
+    Class<?> validatedClass;
+
+    @Label("Field Count")
+    @Description("Number of declared fields of the validated class")
+    int fieldCount;
+
+    @Label("Error Count")
+    int errorCount;
+
+    @Label("Path")
+    @Description("Path of the object in a stream of validated objects")
+    String path;
+}
@@ -0,0 +1,43 @@
+package form.library.services;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiled, immutable validation plan of a class.
+ * Plans are built once per class by PlanCompiler
+ * and then reused by every validation of its instances.
+ */
+final class ValidationPlan {
+    static final ValidationPlan UNCONSTRAINED = new ValidationPlan(new FieldPlan[0], null, false);   // Plan of classes without @Constrained.
+
+    final FieldPlan[] fields;   // Fields in declaration order.
+    final FieldBlock[] blocks;  // Specialized blocks indexed by their first field or null if class isn't specialized.
+    final boolean immutable;    // Whether class is @Constrained(immutable = true) or a record of immutable components.
+    private final Map<String, FieldPlan> names;   // Fields by names.
+
+    ValidationPlan(FieldPlan[] fields, FieldBlock[] blocks, boolean immutable) {
+        this.fields = fields;
+        this.blocks = blocks;
+        this.immutable = immutable;
+        this.names = new HashMap<>();
+        for (var field : fields)
+            names.put(field.name, field);
+    }
+
+    /**
+     * @param name name of field used in paths.
+     * @return plan of field or null if there is no such field.
+     */
+    FieldPlan field(String name) {
+        return names.get(name);
+    }
+
+    /**
+     * Whether instances of the class should be validated.
+     * @return true if class is annotated with @Constrained.
+     */
+    boolean isConstrained() {
+        return this != UNCONSTRAINED;
+    }
+}
@@ -0,0 +1,322 @@
+package form.library.services;
+
+import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationPath;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compact result of validation which keeps errors in columns of primitive arrays instead of error objects.
+ * Every error is stored as a kind (code with parameters or message), an interned path template
+ * like "members[][].age" with the indices of its brackets, and the failed value.
+ * Errors which are found are decomposed at once, so neither they nor their paths are retained,
+ * and ValidationError objects are recreated only when they are requested.
+ * Keys of maps are a part of path template, so every distinct key has its own template.
+ */
+public final class ValidationResult {
+    private static final int ROOT = -1;                 // Template of errors without path.
+    private static final Object[] NO_PARAMS = new Object[0];
+
+    private int size;
+    private int[] kinds = new int[16];                  // Kind of every error.
+    private int[] templates = new int[16];              // Path template of every error.
+    private int[] offsets = new int[17];                // Start of indices of every error in indices, offsets[size] is the end.
+    private Object[] values = new Object[16];           // Failed value of every error.
+    private int[] indices = new int[16];                // Indices of all paths.
+
+    private final Map<Object, Integer> kindIds = new HashMap<>();
+    private String[] kindCodes = new String[8];         // Code of kind or null if kind has only message.
+    private Object[] kindParams = new Object[8];        // Parameters of kind (Object[]) or message (String).
+    private int[] kindCounts = new int[8];              // Number of errors of kind.
+    private int kindCount;
+
+    private final Map<Segment, Integer> templateIds = new HashMap<>();
+    private int[] templateParents = new int[8];         // Parent template or ROOT.
+    private Object[] templateSegments = new Object[8];  // Name of property, key of map value or null for index.
+    private boolean[] templateKeys = new boolean[8];    // Whether segment is a key of map value.
+    private int templateCount;
+
+    ValidationResult() { }
+
+    /**
+     * @return true if there are no errors.
+     */
+    public boolean isValid() {
+        return size == 0;
+    }
+
+    /**
+     * @return number of errors.
+     */
+    public int errorCount() {
+        return size;
+    }
+
+    /**
+     * @param code constraint code, e.g. "NotNull".
+     * @return number of errors with this code.
+     */
+    public int errorCount(String code) {
+        int count = 0;
+        for (int kind = 0; kind < kindCount; ++kind) {
+            if (Objects.equals(kindCodes[kind], code))
+                count += kindCounts[kind];
+        }
+        return count;
+    }
+
+    /**
+     * Aggregates errors by constraint codes, errors without code are counted under their messages.
+     * @return numbers of errors by codes in order the codes were found.
+     */
+    public Map<String, Integer> countByCode() {
+        var counts = new LinkedHashMap<String, Integer>();
+        for (int kind = 0; kind < kindCount; ++kind)
+            counts.merge(kindCodes[kind] != null ? kindCodes[kind] : (String) kindParams[kind], kindCounts[kind], Integer::sum);
+        return counts;
+    }
+
+    /**
+     * @param index index of error in order they were found.
+     * @return code of error or null if error has only message.
+     */
+    public String getCode(int index) {
+        return kindCodes[kinds[checkIndex(index)]];
+    }
+
+    /**
+     * @param index index of error in order they were found.
+     * @return rendered path of error, e.g. "members[0][1].age".
+     */
+    public String getPath(int index) {
+        var path = getPropertyPath(index);
+        return path != null ? path.toString() : "";
+    }
+
+    /**
+     * @param index index of error in order they were found.
+     * @return path of error, which is created on every call.
+     */
+    public ValidationPath getPropertyPath(int index) {
+        checkIndex(index);
+        int template = templates[index];
+        var segments = new int[template == ROOT ? 0 : templateDepthOf(template)];
+        for (int t = template, i = segments.length; t != ROOT; t = templateParents[t])
+            segments[--i] = t;
+
+        ServicePath path = null;
+        int from = offsets[index];
+        for (int t : segments) {
+            if (templateKeys[t])
+                path = ServicePath.key(path, templateSegments[t]);
+            else if (templateSegments[t] == null)
+                path = ServicePath.index(path, indices[from++]);
+            else
+                path = ServicePath.property(path, (String) templateSegments[t]);
+        }
+        return path;
+    }
+
+    /**
+     * @param index index of error in order they were found.
+     * @return failed value of error.
+     */
+    public Object getFailedValue(int index) {
+        return values[checkIndex(index)];
+    }
+
+    /**
+     * Recreates error, its message is rendered lazily as messages of other errors are.
+     * @param index index of error in order they were found.
+     * @return error.
+     */
+    public ValidationError get(int index) {
+        int kind = kinds[checkIndex(index)];
+        var path = getPropertyPath(index);
+        if (kindCodes[kind] != null)
+            return new ServiceError(path, kindCodes[kind], (Object[]) kindParams[kind], values[index]);
+        return new ServiceError(path, (String) kindParams[kind], values[index]);
+    }
+
+    /**
+     * @return view of errors which recreates them on access.
+     */
+    public List<ValidationError> getErrors() {
+        return new AbstractList<>() {
+            @Override
+            public ValidationError get(int index) {
+                return ValidationResult.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return String.format("errors=%d, %s", size, countByCode());
+    }
+
+    /**
+     * Decomposes error into columns.
+     * @param error error found by traversal.
+     */
+    void add(ValidationError error) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            templates = Arrays.copyOf(templates, capacity);
+            offsets = Arrays.copyOf(offsets, capacity + 1);
+            values = Arrays.copyOf(values, capacity);
+        }
+        int kind = kind(error);
+        ++kindCounts[kind];
+        kinds[size] = kind;
+        values[size] = error.getFailedValue();
+
+        int from = offsets[size];
+        int template = ROOT;
+        var path = ServiceError.pathOf(error);
+        if (path != null) {
+            int depth = 0;
+            for (var segment = path; segment != null; segment = segment.getParent())
+                ++depth;
+            var segments = new ValidationPath[depth];
+            for (var segment = path; segment != null; segment = segment.getParent())
+                segments[--depth] = segment;
+            for (var segment : segments) {
+                template = template(template, segment);
+                if (segment.isIndex()) {
+                    if (from == indices.length)
+                        indices = Arrays.copyOf(indices, from * 2);
+                    indices[from++] = segment.getIndex();
+                }
+            }
+        }
+        templates[size] = template;
+        offsets[++size] = from;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for %d errors.", index, size));
+        return index;
+    }
+
+    private int templateDepthOf(int template) {
+        int depth = 0;
+        for (int t = template; t != ROOT; t = templateParents[t])
+            ++depth;
+        return depth;
+    }
+
+    /**
+     * Interns kind of error. Parameters of built-in constraints are shared by their validators,
+     * so they are compared by identity first, and by values if errors are created with new arrays.
+     */
+    private int kind(ValidationError error) {
+        var code = error.getCode();
+        Object params = code == null ? error.getMessage()
+                : error instanceof ServiceError ? ((ServiceError) error).params() : NO_PARAMS;
+        var key = code == null ? params : new Kind(code, (Object[]) params);
+        var id = kindIds.get(key);
+        if (id != null)
+            return id;
+
+        if (kindCount == kindCodes.length) {
+            kindCodes = Arrays.copyOf(kindCodes, kindCount * 2);
+            kindParams = Arrays.copyOf(kindParams, kindCount * 2);
+            kindCounts = Arrays.copyOf(kindCounts, kindCount * 2);
+        }
+        kindCodes[kindCount] = code;
+        kindParams[kindCount] = params;
+        kindIds.put(key, kindCount);
+        return kindCount++;
+    }
+
+    /**
+     * Interns template of path segment under parent template.
+     */
+    private int template(int parent, ValidationPath segment) {
+        var key = new Segment(parent, segment.isIndex() ? null : segment.isKey() ? segment.getKey() : segment.getName(), segment.isKey());
+        var id = templateIds.get(key);
+        if (id != null)
+            return id;
+
+        if (templateCount == templateParents.length) {
+            templateParents = Arrays.copyOf(templateParents, templateCount * 2);
+            templateSegments = Arrays.copyOf(templateSegments, templateCount * 2);
+            templateKeys = Arrays.copyOf(templateKeys, templateCount * 2);
+        }
+        templateParents[templateCount] = parent;
+        templateSegments[templateCount] = key.value;
+        templateKeys[templateCount] = key.isKey;
+        templateIds.put(key, templateCount);
+        return templateCount++;
+    }
+
+    /**
+     * Key of kind of error with code.
+     */
+    private static final class Kind {
+        private final String code;
+        private final Object[] params;
+        private final int hash;     // Hash of parameters, computed once.
+
+        Kind(String code, Object[] params) {
+            this.code = code;
+            this.params = params;
+            this.hash = Arrays.hashCode(params);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Kind))
+                return false;
+            var kind = (Kind) other;
+            return kind.code.equals(code) && (kind.params == params || Arrays.equals(kind.params, params));
+        }
+
+        @Override
+        public int hashCode() {
+            return code.hashCode() * 31 + hash;
+        }
+    }
+
+    /**
+     * Key of path template: segment under parent template.
+     */
+    private static final class Segment {
+        private final int parent;
+        private final Object value;     // Name, key or null for index.
+        private final boolean isKey;
+
+        Segment(int parent, Object value, boolean isKey) {
+            this.parent = parent;
+            this.value = value;
+            this.isKey = isKey;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Segment))
+                return false;
+            var segment = (Segment) other;
+            return parent == segment.parent && isKey == segment.isKey && Objects.equals(value, segment.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return (parent * 31 + Objects.hashCode(value)) * 2 + (isKey ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package form.library.services;
+
+import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validation of one object which is edited and validated after every edit, e.g. a form of UI.
+ * The session keeps errors of the last validation. Changed properties are validated again
+ * without walking the whole graph: only objects on the path to the property are read,
+ * and errors of the property and everything under it replace the cached ones.
+ * Objects reached by several paths, including objects moved by edits from one path to another,
+ * may have errors under any of them, and errors beyond the budget of options aren't known,
+ * so in these cases the whole object is validated again.
+ * Sessions aren't thread safe.
+ */
+public final class ValidationSession {
+    private final ServiceValidator validator;
+    private final ValidationOptions options;
+    private final List<ValidationError> errors = new ArrayList<>();     // Errors of the last validation in traversal order.
+    private Object object;                                              // Validated object or null.
+    private boolean shared;                                             // Whether some instance of object is reached by several paths.
+    private final Map<Object, String> paths = new IdentityHashMap<>();  // Paths at which @Constrained instances were last validated.
+
+    ValidationSession(ServiceValidator validator, ValidationOptions options) {
+        this.validator = validator;
+        this.options = options;
+    }
+
+    /**
+     * Validates the whole object and caches its errors.
+     * @param object edited object.
+     * @return all errors of the object.
+     */
+    public Set<ValidationError> validate(Object object) {
+        this.object = object;
+        errors.clear();
+        paths.clear();
+        var sink = new ValidationErrorSink(options, validator.getFailedValueCapture());
+        sink.trackEntered();
+        if (object != null)
+            validator.validate(object, null, sink);
+        for (int i = 0; i < sink.size(); ++i)
+            errors.add(sink.get(i));
+        shared = sink.hasShared();
+        addPaths(sink);
+        return getErrors();
+    }
+
+    /**
+     * Validates changed property, e.g. "address.zip" or "items[3]", and everything reachable from it.
+     * Cached errors of the property and of its nested properties are replaced by the new ones,
+     * other errors are kept. New errors take the place of the replaced ones or, if there were none, are appended,
+     * and errors beyond the budget of options are dropped.
+     * Another object is validated as a whole, as well as object with shared instances or with exhausted budget.
+     * @param object edited object.
+     * @param property path of changed property, empty for the whole object.
+     * @return all errors of the object.
+     * @throws IllegalArgumentException if path doesn't match fields of @Constrained classes.
+     */
+    public Set<ValidationError> revalidate(Object object, String property) {
+        var path = ServicePath.parse(property);
+        if (object != this.object || object == null || path == null || shared || errors.size() >= options.getMaxErrors())
+            return validate(object);
+
+        var sink = new ValidationErrorSink(options, validator.getFailedValueCapture());
+        sink.trackEntered();
+        validator.validateProperty(object, path, sink);
+        if (sink.hasShared())
+            return validate(object);
+        var prefix = path.toString();
+        for (var entered : sink.getEntered().keySet()) {
+            var previous = paths.get(entered);
+            if (previous != null && !ServicePath.isUnder(previous, prefix))
+                return validate(object);
+        }
+        addPaths(sink);
+
+        int position = -1;
+        for (int i = errors.size() - 1; i >= 0; --i) {
+            if (ServicePath.isUnder(errors.get(i).getPath(), prefix)) {
+                errors.remove(i);
+                position = i;
+            }
+        }
+        var found = new ArrayList<ValidationError>(sink.size());
+        for (int i = 0; i < sink.size(); ++i)
+            found.add(sink.get(i));
+        errors.addAll(position >= 0 ? position : errors.size(), found);
+        if (errors.size() > options.getMaxErrors())
+            errors.subList(options.getMaxErrors(), errors.size()).clear();
+        return getErrors();
+    }
+
+    private void addPaths(ValidationErrorSink sink) {
+        sink.getEntered().forEach((entered, path) -> paths.put(entered, path != null ? path.toString() : ""));
+    }
+
+    /**
+     * @return errors of the last validation, empty before the first one.
+     */
+    public Set<ValidationError> getErrors() {
+        return errors.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(new LinkedHashSet<>(errors));
+    }
+}
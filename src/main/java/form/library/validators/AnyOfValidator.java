@@ -2,36 +2,62 @@ package form.library.validators;
 
 import form.library.annotations.AnyOf;
 import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationPath;
 import form.library.services.ServiceError;
 
 import java.lang.annotation.Annotation;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 class AnyOfValidator implements FormValidator {
-    private static FormValidator instance;
+    private static final String MISUSE = "AnyOf annotation can be only with String type.";
+    private static final FormValidator instance = new AnyOfValidator();
+    private final Map<Annotation, FormValidator> compiled = new ConcurrentHashMap<>();  // Validators of annotations checked without plan.
     private AnyOfValidator() { }
 
     @Override
-    public ValidationError validateValue(Object fieldVal, Annotation annotation, String path) {
-        ServiceError error = null;
-        var values = ((AnyOf) annotation).value();
-
-        if (fieldVal != null) {
-            try {
-                var value = (String) fieldVal;
-                if (!Arrays.asList(values).contains(value))
-                    error = new ServiceError(path, String.format("Must be one of %s", Arrays.toString(values)), fieldVal);
+    public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+        return compiled.computeIfAbsent(annotation, ignored -> compile(annotation, Object.class)).validateValue(fieldVal, annotation, path);
+    }
 
-            } catch (ClassCastException ex) {
-                System.out.printf("AnyOf annotation can be only with String type. Problem with: %s", path);
-            }
-        }
-        return error;
+    /**
+     * Compiles allowed values into a hash set.
+     * @param annotation AnyOf annotation.
+     * @param type declared type of value.
+     * @return validator bound to the annotation.
+     */
+    @Override
+    public FormValidator compile(Annotation annotation, Class<?> type) {
+        var values = ((AnyOf) annotation).value();
+        var validator = new CompiledAnyOf(Set.copyOf(Arrays.asList(values)), new Object[] { values.clone() });
+        return TypeChecks.select(type, MISUSE, List.of(Map.entry(String.class, validator)));
     }
 
     public static FormValidator getValidator() {
-        if (instance == null)
-            instance = new AnyOfValidator();
         return instance;
     }
+
+    /**
+     * AnyOf validator of strings bound to allowed values of one annotation.
+     */
+    private static final class CompiledAnyOf implements FormValidator {
+        private final Set<String> values;
+        private final Object[] params;  // Parameters of message.
+
+        private CompiledAnyOf(Set<String> values, Object[] params) {
+            this.values = values;
+            this.params = params;
+        }
+
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null && !values.contains((String) fieldVal))
+                error = new ServiceError(path, "AnyOf", params, fieldVal);
+            return error;
+        }
+    }
 }
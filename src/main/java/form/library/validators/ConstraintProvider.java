@@ -0,0 +1,14 @@
+package form.library.validators;
+
+/**
+ * Service which registers custom constraints.
+ * Implementations are listed in META-INF/services/form.library.validators.ConstraintProvider
+ * and are found by Validators.defaults() and Validators.Builder.discover.
+ */
+public interface ConstraintProvider {
+    /**
+     * Registers constraints of this provider.
+     * @param registry builder of registry.
+     */
+    void registerConstraints(Validators.Builder registry);
+}
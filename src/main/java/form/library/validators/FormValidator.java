@@ -1,6 +1,7 @@
 package form.library.validators;
 
 import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationPath;
 
 import java.lang.annotation.Annotation;
 
@@ -12,5 +13,18 @@ public interface FormValidator {
      * @param path path to the field of this value.
      * @return error if value doesn't appropriate to conditions.
      */
-    ValidationError validateValue(Object fieldVal, Annotation annotation, String path);
+    ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path);
+
+    /**
+     * Prepares validator for one annotation instance.
+     * It's called once, when the plan of a class is compiled,
+     * so everything which depends only on annotation and declared type can be computed here.
+     * @param annotation annotation.
+     * @param type declared type of annotated field or element, Object if it is unknown.
+     * @return validator bound to the annotation and specialized for the type.
+     * @throws IllegalArgumentException if annotation can't be applied to values of the type.
+     */
+    default FormValidator compile(Annotation annotation, Class<?> type) {
+        return this;
+    }
 }
@@ -2,35 +2,104 @@ package form.library.validators;
 
 import form.library.annotations.InRange;
 import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationPath;
 import form.library.services.ServiceError;
 
 import java.lang.annotation.Annotation;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 class InRangeValidator implements FormValidator {
-    private static FormValidator instance;
+    private static final String MISUSE = "InRange annotation can be only with numbers.";
+    private static final FormValidator instance = new InRangeValidator();
+    private final Map<Annotation, FormValidator> compiled = new ConcurrentHashMap<>();  // Validators of annotations checked without plan.
     private InRangeValidator() { }
 
     @Override
-    public ValidationError validateValue(Object fieldVal, Annotation annotation, String path) {
-        ServiceError error = null;
+    public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+        return compiled.computeIfAbsent(annotation, ignored -> compile(annotation, Object.class)).validateValue(fieldVal, annotation, path);
+    }
+
+    @Override
+    public FormValidator compile(Annotation annotation, Class<?> type) {
         long min = ((InRange)annotation).min();
         long max = ((InRange)annotation).max();
-
-        if (fieldVal != null) {
-            try {
-                var value = (Number) fieldVal;
-                if (!(value.longValue() >= min && value.longValue() <= max))
-                    error = new ServiceError(path, String.format("Must be in range between %d and %d", min, max), fieldVal);
-            } catch (ClassCastException ex) {
-                System.out.printf("InRange annotation can be only with numbers. Problem with: %s", path);
-            }
-        }
-        return error;
+        var params = new Object[] { min, max };
+        return NumberChecks.select(type, MISUSE, new Integers(min, max, params), new Numbers(min, max, params));
     }
 
     public static FormValidator getValidator() {
-        if (instance == null)
-            instance = new InRangeValidator();
         return instance;
     }
+
+    /**
+     * InRange validator of integral numbers bound to bounds of one annotation.
+     */
+    private static class Integers implements NumberValidator {
+        final long min, max;
+        final Object[] params;  // Parameters of message.
+
+        private Integers(long min, long max, Object[] params) {
+            this.min = min;
+            this.max = max;
+            this.params = params;
+        }
+
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null && !isValid(((Number) fieldVal).longValue()))
+                error = new ServiceError(path, "InRange", params, fieldVal);
+            return error;
+        }
+
+        @Override
+        public boolean isValid(long value) {
+            return value >= min && value <= max;
+        }
+        @Override
+        public boolean isValid(double value) {
+            return value >= min && value <= max;
+        }
+    }
+
+    /**
+     * InRange validator of any numbers, which compares fractional and big numbers exactly.
+     */
+    private static final class Numbers extends Integers {
+        private final BigDecimal minDecimal, maxDecimal;
+        private final BigInteger minInteger, maxInteger;
+
+        private Numbers(long min, long max, Object[] params) {
+            super(min, max, params);
+            this.minDecimal = BigDecimal.valueOf(min);
+            this.maxDecimal = BigDecimal.valueOf(max);
+            this.minInteger = BigInteger.valueOf(min);
+            this.maxInteger = BigInteger.valueOf(max);
+        }
+
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null && !isValid((Number) fieldVal))
+                error = new ServiceError(path, "InRange", params, fieldVal);
+            return error;
+        }
+
+        private boolean isValid(Number value) {
+            if (value instanceof Double || value instanceof Float)
+                return isValid(value.doubleValue());
+            if (value instanceof BigDecimal) {
+                var decimal = (BigDecimal) value;
+                return decimal.compareTo(minDecimal) >= 0 && decimal.compareTo(maxDecimal) <= 0;
+            }
+            if (value instanceof BigInteger) {
+                var integer = (BigInteger) value;
+                return integer.compareTo(minInteger) >= 0 && integer.compareTo(maxInteger) <= 0;
+            }
+            return isValid(value.longValue());
+        }
+    }
 }
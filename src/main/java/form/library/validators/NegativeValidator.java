@@ -1,33 +1,76 @@
 package form.library.validators;
 
 import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationPath;
 import form.library.services.ServiceError;
 
 import java.lang.annotation.Annotation;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 class NegativeValidator implements FormValidator {
-    private static FormValidator instance;
+    private static final String MISUSE = "Negative annotation can be only with numbers.";
+    private static final FormValidator instance = new NegativeValidator();
+    private final Map<Annotation, FormValidator> compiled = new ConcurrentHashMap<>();  // Validators of annotations checked without plan.
+    private static final FormValidator integers = new Integers();
+    private static final FormValidator numbers = new Numbers();
     private NegativeValidator() { }
 
     @Override
-    public ValidationError validateValue(Object fieldVal, Annotation annotation, String path) {
-        ServiceError error = null;
-
-        if (fieldVal != null) {
-            try {
-                var value = ((Number)fieldVal).longValue();
-                if (value >= 0)
-                    error = new ServiceError(path, "Must be negative!", fieldVal);
-            } catch (ClassCastException ex) {
-                System.out.printf("Negative annotation can be only with numbers. Problem with: %s", path);
-            }
-        }
-        return error;
+    public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+        return compiled.computeIfAbsent(annotation, ignored -> compile(annotation, Object.class)).validateValue(fieldVal, annotation, path);
+    }
+
+    @Override
+    public FormValidator compile(Annotation annotation, Class<?> type) {
+        return NumberChecks.select(type, MISUSE, integers, numbers);
     }
 
     public static FormValidator getValidator() {
-        if (instance == null)
-            instance = new NegativeValidator();
         return instance;
     }
+
+    /**
+     * Negative validator of integral numbers.
+     */
+    private static final class Integers implements NumberValidator {
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null && !isValid(((Number)fieldVal).longValue()))
+                error = new ServiceError(path, "Negative", null, fieldVal);
+            return error;
+        }
+
+        @Override
+        public boolean isValid(long value) {
+            return value < 0;
+        }
+        @Override
+        public boolean isValid(double value) {
+            return value < 0;
+        }
+    }
+
+    /**
+     * Negative validator of any numbers, including fractional ones.
+     */
+    private static final class Numbers implements NumberValidator {
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null && !(NumberChecks.signum((Number)fieldVal) < 0))
+                error = new ServiceError(path, "Negative", null, fieldVal);
+            return error;
+        }
+
+        @Override
+        public boolean isValid(long value) {
+            return value < 0;
+        }
+        @Override
+        public boolean isValid(double value) {
+            return value < 0;
+        }
+    }
 }
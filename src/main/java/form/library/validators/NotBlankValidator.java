@@ -1,34 +1,45 @@
 package form.library.validators;
 
 import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationPath;
 import form.library.services.ServiceError;
 
 import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class NotBlankValidator implements FormValidator {
-    private static FormValidator instance;
+    private static final String MISUSE = "NotBlank annotation can be only with String type.";
+    private static final FormValidator instance = new NotBlankValidator();
+    private final Map<Annotation, FormValidator> compiled = new ConcurrentHashMap<>();  // Validators of annotations checked without plan.
+    private static final FormValidator strings = new Strings();
     private NotBlankValidator() { }
 
     @Override
-    public ValidationError validateValue(Object fieldVal, Annotation annotation, String path) {
-        ServiceError error = null;
-
-        if (fieldVal != null) {
-            try {
-                var value = (String)fieldVal;
-                if (value.isBlank())
-                    error = new ServiceError(path, "Must not be blank!", fieldVal);
-            } catch (ClassCastException ex) {
-                System.out.printf("NotBlank annotation can be only with String type. Problem with: %s", path);
-            }
-        }
+    public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+        return compiled.computeIfAbsent(annotation, ignored -> compile(annotation, Object.class)).validateValue(fieldVal, annotation, path);
+    }
 
-        return error;
+    @Override
+    public FormValidator compile(Annotation annotation, Class<?> type) {
+        return TypeChecks.select(type, MISUSE, List.of(Map.entry(String.class, strings)));
     }
 
     public static FormValidator getValidator() {
-        if (instance == null)
-            instance = new NotBlankValidator();
         return instance;
     }
+
+    /**
+     * NotBlank validator of strings.
+     */
+    private static final class Strings implements FormValidator {
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null && ((String)fieldVal).isBlank())
+                error = new ServiceError(path, "NotBlank", null, fieldVal);
+            return error;
+        }
+    }
 }
@@ -1,49 +1,77 @@
 package form.library.validators;
 
 import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationPath;
 import form.library.services.ServiceError;
 
 import java.lang.annotation.Annotation;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 class NotEmptyValidator implements FormValidator{
-    private static FormValidator instance;
+    private static final String MISUSE = "NotEmpty annotation can be only with collections, maps or string.";
+    private static final FormValidator instance = new NotEmptyValidator();
+    private final Map<Annotation, FormValidator> compiled = new ConcurrentHashMap<>();  // Validators of annotations checked without plan.
+    private static final FormValidator strings = new Strings();
+    private static final FormValidator maps = new Maps();
+    private static final FormValidator collections = new Collections();
     private NotEmptyValidator() { }
 
     @Override
-    public ValidationError validateValue(Object fieldVal, Annotation annotation, String path) {
-        ServiceError error = null;
-
-        if (fieldVal != null) {
-            try {
-                if (fieldVal instanceof String) {
-                    var value = (String)fieldVal;
-                    if (value.isEmpty())
-                        error = new ServiceError(path, "String shouldn't be empty", fieldVal);
-
-                }
-                else if (fieldVal instanceof Map<?, ?>) {
-                    var value = (Map<?, ?>)fieldVal;
-                    if (value.isEmpty())
-                        error = new ServiceError(path, "Map shouldn't be empty", fieldVal);
-                }
-                else {
-                    var value = (Collection<?>)fieldVal;
-                    if (value.isEmpty())
-                        error = new ServiceError(path, "Collection shouldn't be empty", fieldVal);
-                }
-            } catch (ClassCastException ex) {
-                System.out.printf("NotEmpty annotation can be only with collections, maps or string. Problem with: %s", path);
-            }
-        }
+    public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+        return compiled.computeIfAbsent(annotation, ignored -> compile(annotation, Object.class)).validateValue(fieldVal, annotation, path);
+    }
 
-        return error;
+    @Override
+    public FormValidator compile(Annotation annotation, Class<?> type) {
+        return TypeChecks.select(type, MISUSE, List.of(
+                Map.entry(String.class, strings),
+                Map.entry(Map.class, maps),
+                Map.entry(Collection.class, collections)));
     }
 
     public static FormValidator getValidator() {
-        if (instance == null)
-            instance = new NotEmptyValidator();
         return instance;
     }
+
+    /**
+     * NotEmpty validator of strings.
+     */
+    private static final class Strings implements FormValidator {
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null && ((String)fieldVal).isEmpty())
+                error = new ServiceError(path, "NotEmpty.String", null, fieldVal);
+            return error;
+        }
+    }
+
+    /**
+     * NotEmpty validator of maps.
+     */
+    private static final class Maps implements FormValidator {
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null && ((Map<?, ?>)fieldVal).isEmpty())
+                error = new ServiceError(path, "NotEmpty.Map", null, fieldVal);
+            return error;
+        }
+    }
+
+    /**
+     * NotEmpty validator of collections.
+     */
+    private static final class Collections implements FormValidator {
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null && ((Collection<?>)fieldVal).isEmpty())
+                error = new ServiceError(path, "NotEmpty.Collection", null, fieldVal);
+            return error;
+        }
+    }
 }
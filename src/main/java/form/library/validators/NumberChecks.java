@@ -0,0 +1,47 @@
+package form.library.validators;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers of numeric validators.
+ */
+final class NumberChecks {
+    private NumberChecks() { }
+
+    /**
+     * Selects validator for declared numeric type.
+     * @param type declared type of value.
+     * @param misuse description of supported types.
+     * @param integers validator of Long, Integer, Short and Byte, which may use longValue().
+     * @param numbers validator of any Number.
+     * @return validator for the declared type.
+     */
+    static FormValidator select(Class<?> type, String misuse, FormValidator integers, FormValidator numbers) {
+        return TypeChecks.select(type, misuse, List.of(
+                Map.entry(Long.class, integers),
+                Map.entry(Integer.class, integers),
+                Map.entry(Short.class, integers),
+                Map.entry(Byte.class, integers),
+                Map.entry(Number.class, numbers)));
+    }
+
+    /**
+     * Sign of number which doesn't truncate fractions, unlike Long.signum(value.longValue()).
+     * @param value number.
+     * @return -1, 0 or 1; 0 for NaN.
+     */
+    static int signum(Number value) {
+        if (value instanceof Double || value instanceof Float) {
+            double d = value.doubleValue();
+            return d > 0 ? 1 : d < 0 ? -1 : 0;
+        }
+        if (value instanceof BigDecimal)
+            return ((BigDecimal) value).signum();
+        if (value instanceof BigInteger)
+            return ((BigInteger) value).signum();
+        return Long.signum(value.longValue());
+    }
+}
@@ -0,0 +1,21 @@
+package form.library.validators;
+
+/**
+ * Validator of numbers which can check primitive values without boxing them.
+ * Errors are still created by validateValue, which is called only for invalid values.
+ */
+public interface NumberValidator extends FormValidator {
+    /**
+     * Checks integral primitive value.
+     * @param value value of byte, short, int or long field.
+     * @return true if value satisfies constraint.
+     */
+    boolean isValid(long value);
+
+    /**
+     * Checks floating point primitive value.
+     * @param value value of float or double field.
+     * @return true if value satisfies constraint.
+     */
+    boolean isValid(double value);
+}
@@ -0,0 +1,347 @@
+package form.library.validators;
+
+import form.library.annotations.Pattern;
+import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationPath;
+import form.library.services.ServiceError;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+class PatternValidator implements FormValidator {
+    private static final String MISUSE = "Pattern annotation can be only with String type.";
+    private static final FormValidator instance = new PatternValidator();
+    private final Map<Annotation, FormValidator> compiled = new ConcurrentHashMap<>();  // Validators of annotations checked without plan.
+    private PatternValidator() { }
+
+    @Override
+    public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+        return compiled.computeIfAbsent(annotation, ignored -> compile(annotation, Object.class)).validateValue(fieldVal, annotation, path);
+    }
+
+    /**
+     * Compiles regular expression once for the annotation.
+     * Literals, literal prefixes followed by .* and single repeated character classes without flags
+     * are matched without the regex engine.
+     * @param annotation Pattern annotation.
+     * @param type declared type of value.
+     * @return validator bound to the annotation.
+     * @throws IllegalArgumentException if regular expression is invalid.
+     */
+    @Override
+    public FormValidator compile(Annotation annotation, Class<?> type) {
+        var pattern = (Pattern) annotation;
+        var regex = java.util.regex.Pattern.compile(pattern.value(), pattern.flags());
+        var params = new Object[] { pattern.value() };
+        FormValidator validator = pattern.flags() == 0 ? fastPath(pattern.value(), params) : null;
+        if (validator == null)
+            validator = new Regex(regex, params);
+        return TypeChecks.select(type, MISUSE, List.of(Map.entry(String.class, validator)));
+    }
+
+    public static FormValidator getValidator() {
+        return instance;
+    }
+
+    /**
+     * Recognizes regular expressions which can be matched without the regex engine.
+     * @return validator or null if expression is too complex.
+     */
+    static FormValidator fastPath(String regex, Object[] params) {
+        int start = regex.startsWith("^") ? 1 : 0;
+        int end = regex.endsWith("$") && !isEscaped(regex, regex.length() - 1) ? regex.length() - 1 : regex.length();
+        if (start > end)
+            return null;
+        var body = regex.substring(start, end);
+
+        var literal = literal(body);
+        if (literal != null)
+            return new Literal(literal, params);
+        if (body.endsWith(".*") && !isEscaped(body, body.length() - 2)) {
+            var prefix = literal(body.substring(0, body.length() - 2));
+            if (prefix != null)
+                return new Prefix(prefix, params);
+        }
+        return CharClass.parse(body, params);
+    }
+
+    /**
+     * @return text matched by expression without metacharacters or null if it has them.
+     */
+    private static String literal(String regex) {
+        var result = new StringBuilder(regex.length());
+        for (int i = 0; i < regex.length(); ++i) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (++i == regex.length() || Character.isLetterOrDigit(regex.charAt(i)))
+                    return null;
+                result.append(regex.charAt(i));
+            } else if (".^$|?*+()[]{}".indexOf(c) >= 0) {
+                return null;
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Whether character is preceded by odd number of backslashes.
+     */
+    private static boolean isEscaped(String regex, int index) {
+        int slashes = 0;
+        while (index - slashes > 0 && regex.charAt(index - slashes - 1) == '\\')
+            ++slashes;
+        return slashes % 2 == 1;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Pattern validator of strings bound to compiled expression of one annotation.
+     */
+    private static final class Regex implements FormValidator {
+        private final java.util.regex.Pattern pattern;
+        private final Object[] params;  // Parameters of message.
+
+        private Regex(java.util.regex.Pattern pattern, Object[] params) {
+            this.pattern = pattern;
+            this.params = params;
+        }
+
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null && !pattern.matcher((String) fieldVal).matches())
+                error = new ServiceError(path, "Pattern", params, fieldVal);
+            return error;
+        }
+    }
+
+    /**
+     * Pattern validator of strings which must be equal to literal.
+     */
+    private static final class Literal implements FormValidator {
+        private final String literal;
+        private final Object[] params;  // Parameters of message.
+
+        private Literal(String literal, Object[] params) {
+            this.literal = literal;
+            this.params = params;
+        }
+
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null && !literal.equals(fieldVal))
+                error = new ServiceError(path, "Pattern", params, fieldVal);
+            return error;
+        }
+    }
+
+    /**
+     * Pattern validator of strings which must start with literal and have no line terminators after it, as .* requires.
+     */
+    private static final class Prefix implements FormValidator {
+        private final String prefix;
+        private final Object[] params;  // Parameters of message.
+
+        private Prefix(String prefix, Object[] params) {
+            this.prefix = prefix;
+            this.params = params;
+        }
+
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null && !matches((String) fieldVal))
+                error = new ServiceError(path, "Pattern", params, fieldVal);
+            return error;
+        }
+
+        private boolean matches(String value) {
+            if (!value.startsWith(prefix))
+                return false;
+            for (int i = prefix.length(); i < value.length(); ++i) {
+                if (isLineTerminator(value.charAt(i)))
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Pattern validator of strings which consist of characters of one class, e.g. [a-z0-9_]{3,16} or \d+.
+     * Characters are counted by code points like the regex engine does.
+     */
+    private static final class CharClass implements FormValidator {
+        private static final int SHORTHAND_BOUNDS = 8;  // Maximal number of bounds added by one element of class, i.e. by \w.
+        private final long low, high;   // Bits of ASCII characters of class.
+        private final int[] ranges;     // Inclusive bounds of all ranges of class.
+        private final boolean negated;
+        private final int min, max;
+        private final Object[] params;  // Parameters of message.
+
+        private CharClass(int[] ranges, boolean negated, int min, int max, Object[] params) {
+            long low = 0, high = 0;
+            for (int c = 0; c < 128; ++c) {
+                if (contains(ranges, c)) {
+                    if (c < 64)
+                        low |= 1L << c;
+                    else
+                        high |= 1L << (c - 64);
+                }
+            }
+            this.low = low;
+            this.high = high;
+            this.ranges = ranges;
+            this.negated = negated;
+            this.min = min;
+            this.max = max;
+            this.params = params;
+        }
+
+        /**
+         * Parses class or \d, \w, \s with optional quantifier ?, *, +, {n}, {n,} or {n,m}.
+         * @return validator or null if expression has other syntax.
+         */
+        static CharClass parse(String regex, Object[] params) {
+            var ranges = new int[16];
+            int count = 0;
+            boolean negated = false;
+            int i;
+            if (regex.length() >= 2 && regex.charAt(0) == '\\') {
+                count = shorthand(regex.charAt(1), ranges, 0);
+                i = 2;
+            } else if (regex.startsWith("[")) {
+                i = 1;
+                if (i < regex.length() && regex.charAt(i) == '^') {
+                    negated = true;
+                    ++i;
+                }
+                if (i < regex.length() && regex.charAt(i) == ']')
+                    return null;
+                while (i < regex.length() && regex.charAt(i) != ']') {
+                    if (count + SHORTHAND_BOUNDS > ranges.length)
+                        ranges = Arrays.copyOf(ranges, ranges.length * 2);
+                    char c = regex.charAt(i);
+                    if (c == '[' || c == '&' && i + 1 < regex.length() && regex.charAt(i + 1) == '&')
+                        return null;
+                    int from;
+                    if (c == '\\') {
+                        if (i + 1 == regex.length())
+                            return null;
+                        char escaped = regex.charAt(i + 1);
+                        i += 2;
+                        if (Character.isLetterOrDigit(escaped)) {
+                            int added = shorthand(escaped, ranges, count);
+                            if (added < 0)
+                                return null;
+                            count = added;
+                            continue;
+                        }
+                        from = escaped;
+                    } else {
+                        from = c;
+                        ++i;
+                    }
+                    int to = from;
+                    if (i + 1 < regex.length() && regex.charAt(i) == '-' && regex.charAt(i + 1) != ']') {
+                        to = regex.charAt(i + 1);
+                        if (to == '\\' || to == '[')
+                            return null;
+                        i += 2;
+                    }
+                    if (Character.isSurrogate((char) from) || Character.isSurrogate((char) to) || from > to)
+                        return null;
+                    ranges[count++] = from;
+                    ranges[count++] = to;
+                }
+                if (i == regex.length())
+                    return null;
+                ++i;
+            } else {
+                return null;
+            }
+            if (count < 0)
+                return null;
+
+            var quantifier = regex.substring(i);
+            int min, max;
+            switch (quantifier) {
+                case "": min = 1; max = 1; break;
+                case "?": min = 0; max = 1; break;
+                case "*": min = 0; max = Integer.MAX_VALUE; break;
+                case "+": min = 1; max = Integer.MAX_VALUE; break;
+                default:
+                    if (!quantifier.matches("\\{\\d{1,9}(,\\d{0,9})?}"))
+                        return null;
+                    var bounds = quantifier.substring(1, quantifier.length() - 1).split(",", -1);
+                    min = Integer.parseInt(bounds[0]);
+                    max = bounds.length == 1 ? min : bounds[1].isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(bounds[1]);
+                    if (min > max)
+                        return null;
+            }
+            return new CharClass(Arrays.copyOf(ranges, count), negated, min, max, params);
+        }
+
+        /**
+         * Adds ranges of ASCII \d, \w or \s.
+         * @return new number of bounds or -1 if escape isn't supported.
+         */
+        private static int shorthand(char escape, int[] ranges, int count) {
+            String bounds;
+            switch (escape) {
+                case 'd': bounds = "09"; break;
+                case 'w': bounds = "azAZ09__"; break;
+                case 's': bounds = "\t\r  "; break;
+                default: return -1;
+            }
+            for (int i = 0; i < bounds.length(); ++i)
+                ranges[count++] = bounds.charAt(i);
+            return count;
+        }
+
+        private static boolean contains(int[] ranges, int c) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (c >= ranges[i] && c <= ranges[i + 1])
+                    return true;
+            }
+            return false;
+        }
+
+        private boolean contains(int c) {
+            if (c < 64)
+                return (low & 1L << c) != 0;
+            if (c < 128)
+                return (high & 1L << (c - 64)) != 0;
+            return contains(ranges, c);
+        }
+
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null && !matches((String) fieldVal))
+                error = new ServiceError(path, "Pattern", params, fieldVal);
+            return error;
+        }
+
+        private boolean matches(String value) {
+            if (value.length() < min)
+                return false;
+            int count = 0;
+            for (int i = 0; i < value.length(); ++count) {
+                int c = value.codePointAt(i);
+                if (contains(c) == negated)
+                    return false;
+                i += Character.charCount(c);
+            }
+            return count >= min && count <= max;
+        }
+    }
+}
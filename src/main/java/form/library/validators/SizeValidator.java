@@ -2,50 +2,112 @@ package form.library.validators;
 
 import form.library.annotations.Size;
 import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationPath;
 import form.library.services.ServiceError;
 
 import java.lang.annotation.Annotation;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 class SizeValidator implements FormValidator {
-    private static FormValidator instance;
+    private static final String MISUSE = "Size annotation can be only with collections, maps or strings.";
+    private static final FormValidator instance = new SizeValidator();
+    private final Map<Annotation, FormValidator> compiled = new ConcurrentHashMap<>();  // Validators of annotations checked without plan.
     private SizeValidator() { }
 
     @Override
-    public ValidationError validateValue(Object fieldVal, Annotation annotation, String path) {
-        ServiceError error = null;
+    public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+        return compiled.computeIfAbsent(annotation, ignored -> compile(annotation, Object.class)).validateValue(fieldVal, annotation, path);
+    }
+
+    @Override
+    public FormValidator compile(Annotation annotation, Class<?> type) {
         int min = ((Size)annotation).min();
         int max = ((Size)annotation).max();
+        return TypeChecks.select(type, MISUSE, List.of(
+                Map.entry(String.class, new Strings(min, max)),
+                Map.entry(Map.class, new Maps(min, max)),
+                Map.entry(Collection.class, new Collections(min, max))));
+    }
+
+    public static FormValidator getValidator() {
+        return instance;
+    }
+
+    /**
+     * Size validator of strings bound to bounds of one annotation.
+     */
+    private static final class Strings implements FormValidator {
+        private final int min, max;
+        private final Object[] params;   // Parameters of message.
 
-        if (fieldVal != null) {
-            try {
-                if (fieldVal instanceof String) {
-                    var value = (String)fieldVal;
-                    if (!(value.length() >= min && value.length() <= max))
-                        error = new ServiceError(path, String.format("String length should be between %d and %d", min, max), fieldVal);
-                }
-                else if (fieldVal instanceof Map<?, ?>) {
-                    var value = (Map<?, ?>)fieldVal;
-                    if (!(value.size() >= min && value.size() <= max))
-                        error = new ServiceError(path, String.format("Map size should be between %d and %d", min, max), fieldVal);
-                }
-                else {
-                    var value = (Collection<?>)fieldVal;
-                    if (!(value.size() >= min && value.size() <= max))
-                        error = new ServiceError(path, String.format("Collection size should be between %d and %d", min, max), fieldVal);
-                }
-            } catch (ClassCastException ex) {
-                System.out.printf("Size annotation can be only with collections, maps or strings. Problem with: %s", path);
+        private Strings(int min, int max) {
+            this.min = min;
+            this.max = max;
+            this.params = new Object[] { min, max };
+        }
+
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null) {
+                var value = (String)fieldVal;
+                if (!(value.length() >= min && value.length() <= max))
+                    error = new ServiceError(path, "Size.String", params, fieldVal);
             }
+            return error;
+        }
+    }
+
+    /**
+     * Size validator of maps bound to bounds of one annotation.
+     */
+    private static final class Maps implements FormValidator {
+        private final int min, max;
+        private final Object[] params;   // Parameters of message.
+
+        private Maps(int min, int max) {
+            this.min = min;
+            this.max = max;
+            this.params = new Object[] { min, max };
         }
 
-        return error;
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null) {
+                var value = (Map<?, ?>)fieldVal;
+                if (!(value.size() >= min && value.size() <= max))
+                    error = new ServiceError(path, "Size.Map", params, fieldVal);
+            }
+            return error;
+        }
     }
 
-    public static FormValidator getValidator() {
-        if (instance == null)
-            instance = new SizeValidator();
-        return instance;
+    /**
+     * Size validator of collections bound to bounds of one annotation.
+     */
+    private static final class Collections implements FormValidator {
+        private final int min, max;
+        private final Object[] params;   // Parameters of message.
+
+        private Collections(int min, int max) {
+            this.min = min;
+            this.max = max;
+            this.params = new Object[] { min, max };
+        }
+
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            ServiceError error = null;
+            if (fieldVal != null) {
+                var value = (Collection<?>)fieldVal;
+                if (!(value.size() >= min && value.size() <= max))
+                    error = new ServiceError(path, "Size.Collection", params, fieldVal);
+            }
+            return error;
+        }
     }
 }
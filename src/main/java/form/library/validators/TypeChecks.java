@@ -0,0 +1,100 @@
+package form.library.validators;
+
+import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationPath;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Selects type-specialized validators when a plan is compiled,
+ * so misapplied annotations are found once instead of on every value.
+ */
+final class TypeChecks {
+    private static final System.Logger logger = System.getLogger(TypeChecks.class.getName());     // Receiver of diagnostics of values of unsupported types.
+    private static final Map<Class<?>, Class<?>> wrappers = Map.of(
+            boolean.class, Boolean.class,
+            byte.class, Byte.class,
+            char.class, Character.class,
+            short.class, Short.class,
+            int.class, Integer.class,
+            long.class, Long.class,
+            float.class, Float.class,
+            double.class, Double.class
+    );
+
+    private TypeChecks() { }
+
+    /**
+     * Selects validator for declared type of value.
+     * If every value of declared type is an instance of some supported type, its validator is returned as is.
+     * If only some values can be supported, validator checks runtime type and reports other values once.
+     * @param declared declared type of field or element.
+     * @param misuse description of supported types, e.g. "AnyOf annotation can be only with String type.".
+     * @param validators supported types and their specialized validators in order of preference.
+     * @return validator for the declared type.
+     * @throws IllegalArgumentException with misuse message if no value of declared type can be supported.
+     */
+    static FormValidator select(Class<?> declared, String misuse, List<Map.Entry<Class<?>, FormValidator>> validators) {
+        var type = wrap(declared);
+        for (var validator : validators) {
+            if (validator.getKey().isAssignableFrom(type))
+                return validator.getValue();
+        }
+        for (var validator : validators) {
+            if (mayBeInstance(type, validator.getKey()))
+                return new RuntimeTypeValidator(misuse, validators);
+        }
+        throw new IllegalArgumentException(misuse);
+    }
+
+    /**
+     * @param type primitive or reference type.
+     * @return wrapper of primitive type or the type itself.
+     */
+    static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? wrappers.get(type) : type;
+    }
+
+    /**
+     * Whether a value of declared type can be an instance of required type.
+     */
+    private static boolean mayBeInstance(Class<?> declared, Class<?> required) {
+        if (declared.isAssignableFrom(required))
+            return true;
+        if (declared.isInterface())
+            return !Modifier.isFinal(required.getModifiers());
+        return required.isInterface() && !Modifier.isFinal(declared.getModifiers());
+    }
+
+    /**
+     * Validator of values whose type is known only at runtime.
+     * Values of unsupported types are skipped and reported once.
+     */
+    private static final class RuntimeTypeValidator implements FormValidator {
+        private final String misuse;
+        private final List<Map.Entry<Class<?>, FormValidator>> validators;
+        private final AtomicBoolean reported = new AtomicBoolean();
+
+        private RuntimeTypeValidator(String misuse, List<Map.Entry<Class<?>, FormValidator>> validators) {
+            this.misuse = misuse;
+            this.validators = validators;
+        }
+
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            if (fieldVal == null)
+                return null;
+            for (var validator : validators) {
+                if (validator.getKey().isInstance(fieldVal))
+                    return validator.getValue().validateValue(fieldVal, annotation, path);
+            }
+            if (!reported.getAndSet(true))
+                logger.log(System.Logger.Level.WARNING, String.format("%s Problem with: %s", misuse, path));
+            return null;
+        }
+    }
+}
@@ -3,25 +3,162 @@ package form.library.validators;
 import form.library.annotations.*;
 
 import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.ServiceLoader;
 
+/**
+ * Immutable registry of constraint annotations and their validators.
+ * Every registered annotation has an id, the index of its validator in the table,
+ * annotations are resolved to validators once, when plans of classes are compiled.
+ * Custom constraints are registered explicitly with the builder
+ * or by ConstraintProvider services found with ServiceLoader.
+ */
 public class Validators {
+    private final Class<? extends Annotation>[] types;                  // Annotation types by id.
+    private final FormValidator[] validators;                           // Validators by id.
+    private final Map<Class<? extends Annotation>, Integer> ids;        // Ids of annotation types.
     private final Map<Class<? extends Annotation>, FormValidator> annotations;
 
+    /**
+     * Creates registry of built-in constraints only.
+     */
     public Validators() {
-        annotations = Map.of(
-                AnyOf.class, AnyOfValidator.getValidator(),
-                InRange.class, InRangeValidator.getValidator(),
-                Negative.class, NegativeValidator.getValidator(),
-                NotBlank.class, NotBlankValidator.getValidator(),
-                NotEmpty.class, NotEmptyValidator.getValidator(),
-                NotNull.class, NotNullValidator.getValidator(),
-                Positive.class, PositiveValidator.getValidator(),
-                Size.class, SizeValidator.getValidator()
-        );
+        this(builtIn().annotations);
     }
 
+    private Validators(Map<Class<? extends Annotation>, FormValidator> annotations) {
+        @SuppressWarnings("unchecked")
+        var types = (Class<? extends Annotation>[]) annotations.keySet().toArray(new Class<?>[0]);
+        this.types = types;
+        this.validators = annotations.values().toArray(new FormValidator[0]);
+        var ids = new LinkedHashMap<Class<? extends Annotation>, Integer>();
+        for (int i = 0; i < types.length; ++i)
+            ids.put(types[i], i);
+        this.ids = Collections.unmodifiableMap(ids);
+        this.annotations = Collections.unmodifiableMap(new LinkedHashMap<>(annotations));
+    }
+
+    /**
+     * @return registry of built-in constraints and constraints of ConstraintProvider services
+     * visible from the context class loader.
+     */
+    public static Validators defaults() {
+        return Defaults.instance;
+    }
+
+    /**
+     * Creates builder which already has built-in constraints.
+     * @return builder.
+     */
+    public static Builder builder() {
+        return builtIn();
+    }
+
+    private static Builder builtIn() {
+        return new Builder()
+                .register(AnyOf.class, AnyOfValidator.getValidator())
+                .register(InRange.class, InRangeValidator.getValidator())
+                .register(Negative.class, NegativeValidator.getValidator())
+                .register(NotBlank.class, NotBlankValidator.getValidator())
+                .register(NotEmpty.class, NotEmptyValidator.getValidator())
+                .register(NotNull.class, NotNullValidator.getValidator())
+                .register(Pattern.class, PatternValidator.getValidator())
+                .register(Positive.class, PositiveValidator.getValidator())
+                .register(Size.class, SizeValidator.getValidator());
+    }
+
+    /**
+     * @return unmodifiable map of annotation types and their validators in order of ids.
+     */
     public Map<Class<? extends Annotation>, FormValidator> getAnnotations() {
         return annotations;
     }
+
+    /**
+     * @param annotationType annotation type.
+     * @return id of annotation type or -1 if it isn't a registered constraint.
+     */
+    public int getId(Class<? extends Annotation> annotationType) {
+        var id = ids.get(annotationType);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @param id id of constraint.
+     * @return validator of constraint.
+     */
+    public FormValidator getValidator(int id) {
+        return validators[id];
+    }
+
+    /**
+     * @param id id of constraint.
+     * @return annotation type of constraint.
+     */
+    public Class<? extends Annotation> getAnnotationType(int id) {
+        return types[id];
+    }
+
+    /**
+     * @return number of registered constraints.
+     */
+    public int size() {
+        return types.length;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(types);
+    }
+
+    /**
+     * Registry of the default validator, created on first use.
+     */
+    private static final class Defaults {
+        private static final Validators instance = builder().discover(Thread.currentThread().getContextClassLoader()).build();
+    }
+
+    /**
+     * Mutable builder of registry, which is frozen by build.
+     */
+    public static final class Builder {
+        private final Map<Class<? extends Annotation>, FormValidator> annotations = new LinkedHashMap<>();
+
+        private Builder() { }
+
+        /**
+         * Registers constraint, validator of already registered annotation type is replaced,
+         * so built-in constraints can be overridden.
+         * @param annotationType runtime retained annotation type.
+         * @param validator validator of values annotated with it.
+         * @return this builder.
+         */
+        public Builder register(Class<? extends Annotation> annotationType, FormValidator validator) {
+            if (annotationType == null || validator == null)
+                throw new IllegalArgumentException("Annotation type and validator can't be null.");
+            annotations.put(annotationType, validator);
+            return this;
+        }
+
+        /**
+         * Registers constraints of all ConstraintProvider services visible from class loader.
+         * @param loader class loader, null for the system class loader.
+         * @return this builder.
+         */
+        public Builder discover(ClassLoader loader) {
+            for (var provider : ServiceLoader.load(ConstraintProvider.class, loader))
+                provider.registerConstraints(this);
+            return this;
+        }
+
+        /**
+         * @return immutable registry.
+         */
+        public Validators build() {
+            return new Validators(annotations);
+        }
+    }
 }
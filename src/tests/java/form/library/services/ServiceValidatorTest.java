@@ -2,13 +2,27 @@ package form.library.services;
 
 import form.library.annotations.*;
 import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationOptions;
+import form.library.validators.Validators;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.ListResourceBundle;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 class ServiceValidatorTest {
     boolean equalsErrors(Set<ValidationError> errors1, Set<ValidationError> errors2) {
@@ -92,6 +106,681 @@ class ServiceValidatorTest {
         assertTrue(equalsErrors(errors, customErrors));
     }
 
+    @Test
+    void validateRepeatedly() {
+        var validator = ServiceValidator.getInstance();
+        var form = new VaccineForm(List.of(List.of(new Person("", "Snow", 200, "Moderna"))));
+
+        var first = validator.validate(form);
+        var second = validator.validate(form);
+
+        assertEquals(3, first.size());
+        assertTrue(equalsErrors(first, second));
+    }
+
+    @Test
+    void errorBudget() {
+        var validator = ServiceValidator.getInstance();
+        var form = new VaccineForm(List.of(List.of(new Person(null, "Know", 21, "Pfizer"), new Person("", "Pfizer", -3, "CoronaVac"))));
+
+        var first = validator.validate(form, ValidationOptions.failFast());
+        var firstTwo = validator.validate(form, ValidationOptions.maxErrors(2));
+
+        Set<ValidationError> customErrors = new LinkedHashSet<>();
+        customErrors.add(new ServiceError("members[0][0].firstName", "Must not be null", null));
+        assertTrue(equalsErrors(first, customErrors));
+
+        customErrors.add(new ServiceError("members[0][1].firstName", "Must not be blank!", ""));
+        assertTrue(equalsErrors(firstTwo, customErrors));
+        assertThrows(IllegalArgumentException.class, () -> ValidationOptions.maxErrors(0));
+    }
+
+    @Test
+    void parallelList() {
+        var validator = ServiceValidator.getInstance();
+        var people = new ArrayList<Person>();
+        for (int i = 0; i < 10000; ++i)
+            people.add(i % 7 == 0 ? new Person("", "Snow", i, "Pfizer") : new Person("John", "Snow", 40, "Pfizer"));
+        var form = new VaccineForm(List.of(people));
+
+        var sequential = validator.validate(form);
+        var parallel = validator.validate(form, ValidationOptions.builder().parallel(100).build());
+        var parallelBudget = validator.validate(form, ValidationOptions.builder().parallel(100).maxErrors(5).build());
+
+        assertTrue(equalsErrors(sequential, parallel));
+        assertTrue(equalsErrors(new LinkedHashSet<>(new ArrayList<>(sequential).subList(0, 5)), parallelBudget));
+    }
+
+    @Test
+    void validateAll() {
+        var validator = ServiceValidator.getInstance();
+        var forms = new ArrayList<Object>();
+        for (int i = 0; i < 100; ++i)
+            forms.add(i % 3 == 0 ? new Person("", "Snow", i, "Pfizer") : new Vaccination("Pfizer", i - 50));
+
+        var executor = Executors.newFixedThreadPool(4);
+        var results = validator.validateAll(forms);
+        var asyncResults = validator.validateAllAsync(forms, ValidationOptions.defaults(), executor).join();
+        executor.shutdown();
+
+        assertEquals(forms.size(), results.size());
+        for (int i = 0; i < forms.size(); ++i) {
+            assertTrue(equalsErrors(validator.validate(forms.get(i)), results.get(i)));
+            assertTrue(equalsErrors(validator.validate(forms.get(i)), asyncResults.get(i)));
+        }
+    }
+
+    @Constrained
+    static class Node {
+        @NotBlank
+        private final String name;
+        private Node first, second;
+
+        Node(String name) {
+            this.name = name;
+        }
+    }
+
+    @Test
+    void cycle() {
+        var parent = new Node("parent");
+        var child = new Node("");
+        parent.first = child;
+        child.first = parent;
+        child.second = child;
+
+        Set<ValidationError> customErrors = new LinkedHashSet<>();
+        customErrors.add(new ServiceError("first.name", "Must not be blank!", ""));
+
+        assertTrue(equalsErrors(ServiceValidator.getInstance().validate(parent), customErrors));
+    }
+
+    @Test
+    void deepChain() {
+        var root = new Node("root");
+        var node = root;
+        for (int i = 0; i < 100000; ++i)
+            node = node.first = new Node("node");
+        node.first = new Node(" ");
+
+        var errors = ServiceValidator.getInstance().validate(root);
+
+        assertEquals(1, errors.size());
+        assertEquals("first.".repeat(100001) + "name", errors.iterator().next().getPath());
+    }
+
+    @Test
+    void sharedObject() {
+        var root = new Node("root");
+        var shared = new Node("");
+        shared.first = new Node(" ");
+        root.first = shared;
+        root.second = shared;
+
+        var firstPath = ServiceValidator.getInstance().validate(root);
+        var allPaths = ServiceValidator.getInstance().validate(root, ValidationOptions.builder().reportSharedAtAllPaths(true).build());
+
+        Set<ValidationError> customErrors = new LinkedHashSet<>();
+        customErrors.add(new ServiceError("first.name", "Must not be blank!", ""));
+        customErrors.add(new ServiceError("first.first.name", "Must not be blank!", " "));
+        assertTrue(equalsErrors(firstPath, customErrors));
+
+        customErrors.add(new ServiceError("second.name", "Must not be blank!", ""));
+        customErrors.add(new ServiceError("second.first.name", "Must not be blank!", " "));
+        assertTrue(equalsErrors(allPaths, customErrors));
+    }
+
+    @Constrained
+    static class Leaf {
+        @Positive
+        private final int value;
+
+        Leaf(int value) {
+            this.value = value;
+        }
+    }
+
+    @Constrained
+    static class Leaves {
+        private final Map<String, Leaf> byName = new LinkedHashMap<>();
+    }
+
+    @Constrained
+    static class LeavesOwner {
+        private final Leaves first, second;
+
+        LeavesOwner(Leaves first, Leaves second) {
+            this.first = first;
+            this.second = second;
+        }
+    }
+
+    @Test
+    void sharedObjectWithMap() {
+        var shared = new Leaves();
+        shared.byName.put("k", new Leaf(-1));
+        var root = new LeavesOwner(shared, shared);
+
+        var options = ValidationOptions.builder().reportSharedAtAllPaths(true).build();
+        var allPaths = ServiceValidator.getInstance().validate(root, options);
+        var compact = ServiceValidator.getInstance().validateCompact(root, options);
+
+        assertEquals(List.of("first.byName[k].value", "second.byName[k].value"),
+                allPaths.stream().map(ValidationError::getPath).collect(Collectors.toList()));
+        assertTrue(new ArrayList<>(allPaths).get(1).getPropertyPath().getParent().isKey());
+        assertEquals(2, compact.errorCount());
+        assertEquals("first.byName[k].value", compact.getPath(0));
+        assertEquals("second.byName[k].value", compact.getPath(1));
+    }
+
+    @Constrained
+    static class LeafList {
+        private final List<Leaf> leaves;
+        private final Leaf last;
+
+        LeafList(List<Leaf> leaves, Leaf last) {
+            this.leaves = leaves;
+            this.last = last;
+        }
+    }
+
+    @Test
+    void parallelSharedObject() {
+        var shared = new Leaf(-1);
+        var leaves = new ArrayList<Leaf>();
+        for (int i = 0; i < 5000; ++i)
+            leaves.add(i % 2 == 0 ? shared : new Leaf(1));
+        var list = new LeafList(leaves, shared);
+
+        var sequential = ServiceValidator.getInstance().validate(list);
+        var allPaths = ServiceValidator.getInstance().validate(list, ValidationOptions.builder().reportSharedAtAllPaths(true).build());
+        assertEquals(List.of("leaves[0].value"), sequential.stream().map(ValidationError::getPath).collect(Collectors.toList()));
+        assertEquals(2501, allPaths.size());
+        for (int parallelism : new int[] { 1, 4, 16 }) {
+            var pool = new ForkJoinPool(parallelism);
+            try {
+                var parallel = ServiceValidator.getInstance().validate(list, ValidationOptions.builder().parallel(100, pool).build());
+                var parallelAllPaths = ServiceValidator.getInstance().validate(list,
+                        ValidationOptions.builder().parallel(100, pool).reportSharedAtAllPaths(true).build());
+                assertTrue(equalsErrors(sequential, parallel));
+                assertTrue(equalsErrors(allPaths, parallelAllPaths));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Constrained
+    static class Containers {
+        private final LinkedList<@Positive Integer> linked = new LinkedList<>();
+        private final Set<@NotBlank String> tags = new LinkedHashSet<>();
+        private final Map<String, @InRange(min = 0, max = 100) Integer> scores = new LinkedHashMap<>();
+        private final @NotBlank String[] names;
+        private final Node[] nodes;
+
+        Containers(String[] names, Node[] nodes) {
+            this.names = names;
+            this.nodes = nodes;
+        }
+    }
+
+    @Test
+    void containers() {
+        var form = new Containers(new String[] {"name", ""}, new Node[] {new Node("node"), null, new Node(" ")});
+        form.linked.addAll(List.of(1, -2, 3));
+        form.tags.addAll(List.of("tag", " "));
+        form.scores.put("alice", 50);
+        form.scores.put("bob", 150);
+
+        var errors = new ArrayList<>(ServiceValidator.getInstance().validate(form));
+
+        assertEquals(List.of("linked[1]", "tags[1]", "scores[bob]", "names[1]", "nodes[2].name"),
+                errors.stream().map(ValidationError::getPath).collect(Collectors.toList()));
+        var key = errors.get(2).getPropertyPath();
+        assertTrue(key.isKey());
+        assertFalse(key.isIndex());
+        assertEquals("bob", key.getKey());
+        assertEquals("scores[bob]", ServicePath.parse("scores[bob]").toString());
+        assertTrue(ServicePath.parse("scores[bob]").isKey());
+    }
+
+    @Test
+    void compactResult() throws ReflectiveOperationException {
+        var form = new Containers(new String[] {"name", ""}, new Node[] {new Node("node"), null, new Node(" ")});
+        form.linked.addAll(List.of(1, -2, 3));
+        form.tags.addAll(List.of("tag", " "));
+        form.scores.put("alice", 50);
+        form.scores.put("bob", 150);
+        var validator = ServiceValidator.getInstance();
+
+        var result = validator.validateCompact(form);
+
+        assertFalse(result.isValid());
+        assertEquals(5, result.errorCount());
+        assertTrue(equalsErrors(validator.validate(form), new LinkedHashSet<>(result.getErrors())));
+        assertEquals("nodes[2].name", result.getPath(4));
+        assertEquals("bob", result.getPropertyPath(2).getKey());
+        assertEquals(3, result.errorCount("NotBlank"));
+        assertEquals(Map.of("Positive", 1, "NotBlank", 3, "InRange", 1), result.countByCode());
+
+        var records = new ArrayList<Node>();
+        for (int i = 0; i < 1000; ++i)
+            records.add(new Node(i % 2 == 0 ? "" : "record"));
+        var chain = new Node("");
+        chain.first = new Node(" ");
+        result = validator.validateCompact(new Containers(new String[0], records.toArray(new Node[0])));
+        assertEquals(500, result.errorCount());
+        assertEquals("nodes[998].name", result.getPath(499));
+        assertEquals("Must not be blank!", result.get(499).getMessage());
+        assertTrue(validator.validateCompact(null).isValid());
+        assertThrows(IndexOutOfBoundsException.class, () -> validator.validateCompact(chain, ValidationOptions.failFast()).get(1));
+
+        var custom = new ValidationResult();
+        for (int i = 0; i < 100; ++i)
+            custom.add(new ServiceError(ServicePath.index(null, i), "Even", new Object[] {i % 2 + 1}, i));
+        var kindCount = ValidationResult.class.getDeclaredField("kindCount");
+        kindCount.setAccessible(true);
+        assertEquals(2, kindCount.getInt(custom));
+        assertEquals(List.of(2), ((ServiceError) custom.get(1)).getParams());
+    }
+
+    @Test
+    void failedValueCapture() {
+        var numbers = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        var summary = (String) FailedValueCapture.SUMMARY.capture(numbers);
+
+        assertTrue(summary.startsWith("[0, 1, 2, "));
+        assertTrue(summary.endsWith(", ...] (size=1000)"));
+        assertTrue(summary.length() < 150);
+        assertEquals("[1, 2]", FailedValueCapture.SUMMARY.capture(new int[] {1, 2}));
+        assertEquals(42, FailedValueCapture.SUMMARY.capture(42));
+        assertEquals("[ArrayList(size=1000), a]", FailedValueCapture.SUMMARY.capture(List.of(numbers, "a")));
+        assertEquals("{k=Integer[](length=0)}", FailedValueCapture.SUMMARY.capture(Map.of("k", new Integer[0])));
+        var node = new Node("name") {
+            @Override
+            public String toString() {
+                throw new AssertionError("toString of failed value is called");
+            }
+        };
+        assertTrue(((String) FailedValueCapture.SUMMARY.capture(node)).contains("@"));
+        assertTrue(((String) FailedValueCapture.SUMMARY.capture(List.of(node))).contains("@"));
+        assertEquals("int[](length=2)", FailedValueCapture.TYPE_AND_SIZE.capture(new int[] {1, 2}));
+        assertSame(numbers, FailedValueCapture.FULL.capture(numbers));
+    }
+
+    @Test
+    void validateEach() {
+        var records = IntStream.range(0, 1000).mapToObj(i -> new Node(i % 100 == 0 ? "" : "record"));
+        var paths = new ArrayList<String>();
+
+        long reported = ServiceValidator.getInstance().validateEach(records, error -> paths.add(error.getPath()));
+
+        assertEquals(10, reported);
+        assertEquals("[0].name", paths.get(0));
+        assertEquals("[900].name", paths.get(9));
+
+        var iterator = IntStream.range(0, 1000).mapToObj(i -> new Node("")).iterator();
+        assertEquals(3, ServiceValidator.getInstance().validateEach(iterator, ValidationOptions.maxErrors(3), error -> { }));
+        assertTrue(iterator.hasNext());
+    }
+
+    @Constrained
+    static class Generated {
+        @NotBlank String name;
+        @InRange(min = 0, max = 150) int age;
+        @Size(min = 1, max = 2) List<@AnyOf({"a", "b"}) String> codes;
+        Map<String, @Negative Double> balances;
+        Generated next;
+        private @NotNull String comment;
+
+        Generated(String name, int age, List<String> codes, Map<String, Double> balances, String comment) {
+            this.name = name;
+            this.age = age;
+            this.codes = codes;
+            this.balances = balances;
+            this.comment = comment;
+        }
+
+        String getComment() {
+            return comment;
+        }
+    }
+
+    @Test
+    void generatedValidator() {
+        var form = new Generated(" ", 200, List.of("a", "c", "d"), Map.of("card", 1.5), null);
+        form.next = new Generated("next", 1, List.of("a"), Map.of(), "comment");
+        form.next.next = form;
+
+        var generated = ServiceValidator.getInstance().validate(form);
+        var reflective = ServiceValidator.builder().generated(false).build().validate(form);
+
+        assertNotNull(GeneratedValidator.find(Generated.class));
+        assertEquals(7, generated.size());
+        assertTrue(equalsErrors(reflective, generated));
+    }
+
+    @Test
+    void specializedFields() {
+        var plan = new PlanCompiler(new Validators(), false, false, true, null, false).compile(Person.class);
+        assertTrue(plan.blocks[0].getClass().isHidden());
+        assertEquals(4, plan.blocks[0].end);
+
+        var form = new VaccineForm(List.of(List.of(new Person(null, " ", 200, "Pfizer"), new Person("John", "Snow", 40, "Moderna"))));
+        var specialized = ServiceValidator.getInstance().validate(form);
+        var walked = ServiceValidator.builder().specialized(false).build().validate(form);
+
+        assertEquals(4, specialized.size());
+        assertTrue(equalsErrors(walked, specialized));
+        assertTrue(equalsErrors(ServiceValidator.builder().specialized(false).build().validate(form, ValidationOptions.maxErrors(2)),
+                ServiceValidator.getInstance().validate(form, ValidationOptions.maxErrors(2))));
+    }
+
+    @Test
+    void metrics() {
+        var metrics = new InMemoryMetrics();
+        var validator = ServiceValidator.builder().metrics(metrics).build();
+        var form = new VaccineForm(List.of(List.of(new Person(null, "Snow", 200, "Pfizer"), new Person("John", "Snow", 40, "Moderna"))));
+
+        var errors = validator.validate(form);
+        validator.validate(new Vaccination("Pfizer", 2));
+
+        assertTrue(equalsErrors(ServiceValidator.getInstance().validate(form), errors));
+        var validations = metrics.getValidations();
+        assertEquals(1, validations.get(VaccineForm.class).getCount());
+        assertEquals(1, validations.get(VaccineForm.class).getFailures());
+        assertEquals(0, validations.get(Vaccination.class).getFailures());
+
+        var inRange = metrics.getConstraints().get(InRange.class);
+        assertEquals(2, inRange.getCount());
+        assertEquals(1, inRange.getFailures());
+        assertTrue(inRange.getPercentile(100) > 0);
+        assertEquals(7, metrics.getConstraints().get(NotNull.class).getCount());
+        assertEquals(1, metrics.getConstraints().get(NotNull.class).getFailures());
+        assertEquals(1, metrics.getConstraints().get(Positive.class).getCount());
+        assertFalse(metrics.getValidators().isEmpty());
+    }
+
+    @Constrained
+    static class Address {
+        @NotBlank String city;
+        @Pattern("\\d{5}") String zip;
+        Order order;
+
+        Address(String city, String zip) {
+            this.city = city;
+            this.zip = zip;
+        }
+    }
+
+    @Constrained
+    static class Order {
+        @NotBlank String customer;
+        Address address;
+        List<@Positive Integer> quantities;
+
+        Order(String customer, Address address, List<Integer> quantities) {
+            this.customer = customer;
+            this.address = address;
+            this.quantities = quantities;
+        }
+    }
+
+    @Test
+    void session() {
+        var metrics = new InMemoryMetrics();
+        var session = ServiceValidator.builder().metrics(metrics).build().session();
+        var order = new Order("", new Address("", "1234"), new ArrayList<>(List.of(1, -2)));
+        order.address.order = order;
+
+        var errors = session.validate(order);
+        assertEquals(List.of("customer", "address.city", "address.zip", "quantities[1]"),
+                errors.stream().map(ValidationError::getPath).collect(Collectors.toList()));
+
+        metrics.reset();
+        order.address.zip = "12345";
+        errors = session.revalidate(order, "address.zip");
+        assertEquals(List.of("customer", "address.city", "quantities[1]"),
+                errors.stream().map(ValidationError::getPath).collect(Collectors.toList()));
+        assertEquals(1, metrics.getConstraints().values().stream().mapToLong(InMemoryMetrics.Stats::getCount).sum());
+
+        order.address.zip = "1";
+        order.address.city = "Paris";
+        order.quantities.set(0, 0);
+        errors = session.revalidate(order, "address");
+        assertEquals(List.of("customer", "address.zip", "quantities[1]"),
+                errors.stream().map(ValidationError::getPath).collect(Collectors.toList()));
+        errors = session.revalidate(order, "quantities[0]");
+        assertEquals(List.of("customer", "address.zip", "quantities[1]", "quantities[0]"),
+                errors.stream().map(ValidationError::getPath).collect(Collectors.toList()));
+
+        assertThrows(IllegalArgumentException.class, () -> session.revalidate(order, "address.street"));
+        assertTrue(session.revalidate(new Order("x", null, List.of()), "customer").isEmpty());
+    }
+
+    @Constrained
+    static class Parcel {
+        Address billing, shipping;
+
+        Parcel(Address billing, Address shipping) {
+            this.billing = billing;
+            this.shipping = shipping;
+        }
+    }
+
+    @Test
+    void sessionFallbacks() {
+        var address = new Address("Paris", "1234");
+        var parcel = new Parcel(address, address);
+        var session = ServiceValidator.getInstance().session();
+
+        assertEquals(List.of("billing.zip"), session.validate(parcel).stream().map(ValidationError::getPath).collect(Collectors.toList()));
+        address.zip = "12345";
+        assertTrue(session.revalidate(parcel, "shipping.zip").isEmpty());
+
+        parcel.shipping = new Address("Paris", "1");
+        assertEquals(List.of("shipping.zip"), session.revalidate(parcel, "shipping").stream().map(ValidationError::getPath).collect(Collectors.toList()));
+        parcel.shipping = address;
+        address.zip = "1";
+        assertEquals(List.of("billing.zip"), session.revalidate(parcel, "shipping").stream().map(ValidationError::getPath).collect(Collectors.toList()));
+
+        var failFast = ServiceValidator.getInstance().session(ValidationOptions.failFast());
+        var order = new Order("", new Address("Paris", "12345"), new ArrayList<>(List.of(1, 2)));
+        assertEquals(1, failFast.validate(order).size());
+        order.quantities.set(1, -2);
+        assertEquals(List.of("customer"), failFast.revalidate(order, "quantities[1]").stream().map(ValidationError::getPath).collect(Collectors.toList()));
+        order.customer = "John";
+        assertEquals(List.of("quantities[1]"), failFast.revalidate(order, "customer").stream().map(ValidationError::getPath).collect(Collectors.toList()));
+    }
+
+    @Test
+    void validateProperty() {
+        var validator = ServiceValidator.getInstance();
+        var order = new Order("", new Address("", "1234"), List.of(1, -2, -3));
+        order.address.order = order;
+
+        assertEquals(List.of("quantities[1]"),
+                validator.validateProperty(order, "quantities[1]").stream().map(ValidationError::getPath).collect(Collectors.toList()));
+        assertEquals(List.of("address.zip"),
+                validator.validateProperty(order, "address.zip").stream().map(ValidationError::getPath).collect(Collectors.toList()));
+        assertTrue(validator.validateProperty(order, "quantities[5]").isEmpty());
+        assertEquals(5, validator.validateProperty(order, "").size());
+
+        var errors = validator.validateFields(order, new LinkedHashSet<>(List.of("address.zip", "customer", "address")));
+        assertEquals(List.of("customer", "address.city", "address.zip"),
+                errors.stream().map(ValidationError::getPath).collect(Collectors.toList()));
+        assertEquals(1, validator.validateFields(order, Set.of("quantities"), ValidationOptions.maxErrors(1)).size());
+        assertThrows(IllegalArgumentException.class, () -> validator.validateProperty(order, "customer[0]"));
+    }
+
+    @Test
+    void flightRecorderEvents() throws IOException {
+        var validator = ServiceValidator.builder().constraintEvents(true).build();
+        var file = Files.createTempFile("validation", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable("form.library.Validation").withoutThreshold();
+            recording.enable("form.library.Constraint").withoutThreshold();
+            recording.start();
+            validator.validate(new Vaccination("", 2));
+            recording.stop();
+            recording.dump(file);
+
+            var events = RecordingFile.readAllEvents(file);
+            var validation = events.stream().filter(event -> event.getEventType().getName().equals("form.library.Validation")).findFirst().orElseThrow();
+            assertEquals(Vaccination.class.getName(), validation.getClass("validatedClass").getName());
+            assertEquals(2, validation.getInt("fieldCount"));
+            assertEquals(1, validation.getInt("errorCount"));
+
+            var constraints = events.stream().filter(event -> event.getEventType().getName().equals("form.library.Constraint")).collect(Collectors.toList());
+            assertEquals(2, constraints.size());
+            assertTrue(constraints.stream().anyMatch(event -> event.getBoolean("failed") && event.getString("path").equals("vaccine")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void propertyPath() {
+        var form = new VaccineForm(List.of(List.of(new Person("John", "Snow", 40, "Pfizer"), new Person("John", "Snow", -3, "Pfizer"))));
+
+        var path = ServiceValidator.getInstance().validate(form).iterator().next().getPropertyPath();
+
+        assertEquals("age", path.getName());
+        assertEquals(1, path.getParent().getIndex());
+        assertEquals(0, path.getParent().getParent().getIndex());
+        assertEquals("members", path.getParent().getParent().getParent().getName());
+        assertNull(path.getParent().getParent().getParent().getParent());
+        assertEquals("members[0][1].age", path.toString());
+
+        assertThrows(IllegalArgumentException.class, () -> ServicePath.parse("members[0"));
+        assertThrows(IllegalArgumentException.class, () -> ServiceValidator.getInstance().validateProperty(form, "members[0"));
+        assertEquals("a[", new ServiceError("a[", "Must be valid", null).getPath());
+        assertEquals("a[", new ServiceError("a[", "Must be valid", null).getPropertyPath().getName());
+    }
+
+    @Constrained
+    record Delivery(@InRange(min = 1, max = 10) int count, List<@AnyOf({"a", "b"}) String> codes) { }
+
+    @Test
+    void messageTemplates() {
+        var errors = new ArrayList<>(ServiceValidator.getInstance().validate(new Delivery(11, List.of("c"))));
+
+        assertEquals("InRange", errors.get(0).getCode());
+        assertEquals(List.of(1L, 10L), ((ServiceError) errors.get(0)).getParams());
+        assertEquals("AnyOf", errors.get(1).getCode());
+        assertEquals("Must be in range between 1 and 10", errors.get(0).getMessage());
+        assertEquals("Must be one of [a, b]", errors.get(1).getMessage());
+        try {
+            MessageTemplates.setDefault(MessageTemplates.of(Map.of("InRange", "Doit être entre {0} et {1}")));
+            assertEquals("Doit être entre 1 et 10", errors.get(0).getMessage());
+            assertEquals("Must be one of [a, b]", errors.get(1).getMessage());
+            MessageTemplates.setDefault(MessageTemplates.of(new ListResourceBundle() {
+                @Override
+                protected Object[][] getContents() {
+                    return new Object[][] { { "AnyOf", "{0} {1} {x} {" } };
+                }
+            }));
+            assertEquals("[a, b] null {x} {", errors.get(1).getMessage());
+        } finally {
+            MessageTemplates.setDefault(MessageTemplates.defaults());
+        }
+        assertEquals("Must be in range between 1 and 10", errors.get(0).getMessage());
+    }
+
+    @Constrained
+    record Vaccination(@NotBlank String vaccine, @Positive int dose) { }
+
+    @Test
+    void validateRecord() {
+        var errors = ServiceValidator.getInstance().validate(new Vaccination(" ", 0));
+
+        Set<ValidationError> customErrors = new LinkedHashSet<>();
+        customErrors.add(new ServiceError("vaccine", "Must not be blank!", " "));
+        customErrors.add(new ServiceError("dose", "Must be positive!", 0));
+
+        assertTrue(equalsErrors(errors, customErrors));
+    }
+
+    @Constrained
+    static class Box {
+        @NotBlank
+        private String name;
+
+        Box(String name) {
+            this.name = name;
+        }
+    }
+
+    @Constrained
+    record Holder(Box box, List<@NotBlank String> names) { }
+
+    @Constrained(immutable = true)
+    static final class Country {
+        final @NotBlank String code;
+
+        Country(String code) {
+            this.code = code;
+        }
+    }
+
+    @Test
+    void resultCache() {
+        var validator = ServiceValidator.builder().resultCache(2).build();
+        var cache = validator.getResultCache();
+
+        var errors = validator.validate(new Vaccination("", 2));
+        assertEquals(errors, validator.validate(new Vaccination("", 2)));
+        assertEquals(1, errors.size());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        var country = new Country(" ");
+        assertEquals(validator.validate(country), validator.validate(country));
+        assertEquals(2, cache.getHits());
+        validator.validate(new Country(" "));
+        validator.validate(country);
+        assertEquals(3, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        validator.validate(new Vaccination("Pfizer", 1));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getEvictions());
+        validator.validate(new Vaccination("", 2), ValidationOptions.failFast());
+        assertEquals(5, cache.getMisses());
+        assertEquals(1, validator.validate(new Vaccination("", 2), ValidationOptions.failFast()).size());
+        assertEquals(4, cache.getHits());
+
+        var person = new Person("John", "Snow", 40, "Pfizer");
+        validator.validate(person);
+        assertEquals(4, cache.getHits());
+
+        var holder = new Holder(new Box("box"), List.of("name"));
+        assertTrue(validator.validate(holder).isEmpty());
+        holder.box().name = "";
+        assertEquals(1, validator.validate(holder).size());
+        assertEquals(4, cache.getHits());
+
+        var identity = ServiceValidator.builder().resultCache(10, true).build();
+        identity.validate(new Vaccination("", 2));
+        identity.validate(new Vaccination("", 2));
+        assertEquals(0, identity.getResultCache().getHits());
+
+        var vaccination = new Vaccination("", 2);
+        identity.validate(vaccination).clear();
+        assertEquals(1, identity.validate(vaccination).size());
+        assertEquals(1, identity.getResultCache().getHits());
+        assertNull(ServiceValidator.getInstance().getResultCache());
+    }
+
+    @Test
+    void fieldAccessor() throws NoSuchFieldException {
+        var accessor = FieldAccessor.of(Vaccination.class.getDeclaredField("dose"));
+
+        assertTrue(accessor.getClass().isHidden());
+        assertEquals(2, accessor.get(new Vaccination("Pfizer", 2)));
+        assertEquals(2L, accessor.getLong(new Vaccination("Pfizer", 2)));
+        assertEquals(2.0, accessor.getDouble(new Vaccination("Pfizer", 2)));
+    }
+
     @Test
     void checkNull() {
         ServiceValidator.getInstance().validate(null);
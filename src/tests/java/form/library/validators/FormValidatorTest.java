@@ -2,27 +2,55 @@ package form.library.validators;
 
 import form.library.annotations.*;
 import form.library.interfaces.ValidationError;
+import form.library.interfaces.ValidationPath;
+import form.library.services.FailedValueCapture;
 import form.library.services.ServiceError;
 import form.library.services.ServiceValidator;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-import java.io.ByteArrayOutputStream;
-import java.io.PrintStream;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.*;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
 
 class FormValidatorTest {
     private static ServiceValidator validator;
 
-    private final PrintStream standardOut = System.out;
-    private final ByteArrayOutputStream outputStreamCaptor = new ByteArrayOutputStream();
+    private static final Logger logger = Logger.getLogger("form.library");     // Held, so the handler isn't lost with the logger.
+    private final List<String> diagnostics = Collections.synchronizedList(new ArrayList<>());
+    private final Handler diagnosticsCaptor = new Handler() {
+        @Override
+        public void publish(LogRecord record) {
+            diagnostics.add(record.getMessage());
+        }
+
+        @Override
+        public void flush() { }
+
+        @Override
+        public void close() { }
+    };
 
     @BeforeEach
     public void setUp() {
-        System.setOut(new PrintStream(outputStreamCaptor));
+        logger.addHandler(diagnosticsCaptor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logger.removeHandler(diagnosticsCaptor);
     }
 
     @BeforeAll
@@ -69,7 +97,7 @@ class FormValidatorTest {
 
 
         assertTrue(equalsErrors(errors, validErrors));
-        assertEquals("AnyOf annotation can be only with String type. Problem with: exception", outputStreamCaptor.toString().trim());
+        assertEquals(List.of("AnyOf annotation can be only with String type. Problem with: exception"), diagnostics);
     }
 
     @Test
@@ -97,7 +125,39 @@ class FormValidatorTest {
         validErrors.add(new ServiceError("invalidValue", "Must be in range between 17 and 200", inRange.invalidValue));
 
         assertTrue(equalsErrors(errors, validErrors));
-        assertEquals("InRange annotation can be only with numbers. Problem with: exception", outputStreamCaptor.toString().trim());
+        assertEquals(List.of("InRange annotation can be only with numbers. Problem with: exception"), diagnostics);
+    }
+
+    @Test
+    void fractionalNumbersTest() {
+        @Constrained
+        class TestFractional {
+            @InRange(min = 0, max = 1)
+            private final double invalidDouble = 1.5;
+            @InRange(min = 0, max = 1)
+            private final BigDecimal invalidDecimal = new BigDecimal("1.5");
+            @Positive
+            private final float invalidFloat = -0.5f;
+
+            @InRange(min = 0, max = 1)
+            private final double validDouble = 0.5;
+            @Positive
+            private final Double validPositive = 0.5;
+            @Negative
+            private final BigDecimal validNegative = new BigDecimal("-0.5");
+            @InRange(min = 0, max = 10)
+            private final BigInteger validInteger = BigInteger.TEN;
+        }
+
+        var fractional = new TestFractional();
+
+        var errors = validator.validate(fractional);
+        var validErrors = new LinkedHashSet<ValidationError>();
+        validErrors.add(new ServiceError("invalidDouble", "Must be in range between 0 and 1", fractional.invalidDouble));
+        validErrors.add(new ServiceError("invalidDecimal", "Must be in range between 0 and 1", fractional.invalidDecimal));
+        validErrors.add(new ServiceError("invalidFloat", "Must be positive!", fractional.invalidFloat));
+
+        assertTrue(equalsErrors(errors, validErrors));
     }
 
     @Test
@@ -125,7 +185,7 @@ class FormValidatorTest {
         validErrors.add(new ServiceError("invalidValue", "Must be negative!", negative.invalidValue));
 
         assertTrue(equalsErrors(errors, validErrors));
-        assertEquals("Negative annotation can be only with numbers. Problem with: exception", outputStreamCaptor.toString().trim());
+        assertEquals(List.of("Negative annotation can be only with numbers. Problem with: exception"), diagnostics);
 
     }
 
@@ -154,7 +214,7 @@ class FormValidatorTest {
         validErrors.add(new ServiceError("invalidValue", "Must be positive!", positive.invalidValue));
 
         assertTrue(equalsErrors(errors, validErrors));
-        assertEquals("Positive annotation can be only with numbers. Problem with: exception", outputStreamCaptor.toString().trim());
+        assertEquals(List.of("Positive annotation can be only with numbers. Problem with: exception"), diagnostics);
     }
 
     @Test
@@ -178,7 +238,7 @@ class FormValidatorTest {
         validErrors.add(new ServiceError("invalidValue", "Must not be blank!", notBlank.invalidValue));
 
         assertTrue(equalsErrors(errors, validErrors));
-        assertEquals("NotBlank annotation can be only with String type. Problem with: exception", outputStreamCaptor.toString().trim());
+        assertEquals(List.of("NotBlank annotation can be only with String type. Problem with: exception"), diagnostics);
     }
 
     @Test
@@ -201,14 +261,20 @@ class FormValidatorTest {
 
         var notEmpty = new TestNotEmpty();
 
-        var errors = validator.validate(notEmpty);
+        var errors = ServiceValidator.builder().failedValues(FailedValueCapture.FULL).build().validate(notEmpty);
         var validErrors = new LinkedHashSet<ValidationError>();
         validErrors.add(new ServiceError("invalidValue", "String shouldn't be empty", notEmpty.invalidValue));
         validErrors.add(new ServiceError("invalidCollection", "Collection shouldn't be empty", notEmpty.invalidCollection));
         validErrors.add(new ServiceError("invalidMap", "Map shouldn't be empty", notEmpty.invalidMap));
 
         assertTrue(equalsErrors(errors, validErrors));
-        assertEquals("NotEmpty annotation can be only with collections, maps or string. Problem with: exception", outputStreamCaptor.toString().trim());
+        assertEquals(List.of("NotEmpty annotation can be only with collections, maps or string. Problem with: exception"), diagnostics);
+
+        var summaries = new LinkedHashSet<ValidationError>();
+        summaries.add(new ServiceError("invalidValue", "String shouldn't be empty", ""));
+        summaries.add(new ServiceError("invalidCollection", "Collection shouldn't be empty", "[]"));
+        summaries.add(new ServiceError("invalidMap", "Map shouldn't be empty", "{}"));
+        assertTrue(equalsErrors(validator.validate(notEmpty), summaries));
     }
 
     @Test
@@ -231,14 +297,21 @@ class FormValidatorTest {
 
         var notEmpty = new TestNotEmpty();
 
-        var errors = validator.validate(notEmpty);
+        var errors = ServiceValidator.builder().failedValues(FailedValueCapture.FULL).build().validate(notEmpty);
         var validErrors = new LinkedHashSet<ValidationError>();
         validErrors.add(new ServiceError("invalidValue", "String length should be between 1 and 3", notEmpty.invalidValue));
         validErrors.add(new ServiceError("invalidCollection", "Collection size should be between 1 and 3", notEmpty.invalidCollection));
         validErrors.add(new ServiceError("invalidMap", "Map size should be between 1 and 5", notEmpty.invalidMap));
 
         assertTrue(equalsErrors(errors, validErrors));
-        assertEquals("Size annotation can be only with collections, maps or strings. Problem with: exception", outputStreamCaptor.toString().trim());
+        assertEquals(List.of("Size annotation can be only with collections, maps or strings. Problem with: exception"), diagnostics);
+
+        var sizes = new LinkedHashSet<ValidationError>();
+        sizes.add(new ServiceError("invalidValue", "String length should be between 1 and 3", "String(length=6)"));
+        sizes.add(new ServiceError("invalidCollection", "Collection size should be between 1 and 3", "HashSet(size=0)"));
+        sizes.add(new ServiceError("invalidMap", "Map size should be between 1 and 5", "HashMap(size=0)"));
+        assertTrue(equalsErrors(ServiceValidator.builder().failedValues(FailedValueCapture.TYPE_AND_SIZE).build().validate(notEmpty), sizes));
+        assertNull(ServiceValidator.builder().failedValues(FailedValueCapture.NONE).build().validate(notEmpty).iterator().next().getFailedValue());
     }
 
     @Test
@@ -262,4 +335,173 @@ class FormValidatorTest {
         assertEquals(new ArrayList<>(errors).get(0).getMessage(), new ArrayList<>(validErrors).get(0).getMessage());
         assertEquals(new ArrayList<>(errors).get(0).getPath(), new ArrayList<>(validErrors).get(0).getPath());
     }
-}
\ No newline at end of file
+
+    @Test
+    void directValidatorCompiledOnce() throws NoSuchFieldException {
+        @Constrained
+        class TestDirect {
+            @AnyOf({"Hello"})
+            private final String value = "Hello";
+        }
+
+        var annotation = TestDirect.class.getDeclaredField("value").getAnnotatedType().getAnnotation(AnyOf.class);
+        var anyOf = AnyOfValidator.getValidator();
+
+        assertNull(anyOf.validateValue(5, annotation, null));
+        assertNull(anyOf.validateValue(6, annotation, null));
+        assertEquals(1, diagnostics.size());
+        assertNotNull(anyOf.validateValue("hi", annotation, null));
+        assertNull(anyOf.validateValue("Hello", annotation, null));
+    }
+
+    @Test
+    void misappliedReportedOnce() {
+        @Constrained
+        class TestMisapplied {
+            @Positive
+            private final String exception = "eagle";
+
+            private final List<@NotBlank Object> elements = List.of("  ", 5, 6);
+        }
+
+        var misapplied = new TestMisapplied();
+
+        validator.validate(misapplied);
+        var errors = validator.validate(misapplied);
+        var validErrors = new LinkedHashSet<ValidationError>();
+        validErrors.add(new ServiceError("elements[0]", "Must not be blank!", "  "));
+
+        assertTrue(equalsErrors(errors, validErrors));
+        assertEquals(List.of("Positive annotation can be only with numbers. Problem with: exception",
+                "NotBlank annotation can be only with String type. Problem with: elements[1]"), diagnostics);
+    }
+
+    @Test
+    void strictMode() {
+        @Constrained
+        class TestStrict {
+            @AnyOf({"Hello"})
+            private final int exception = 5;
+        }
+
+        var strictValidator = ServiceValidator.builder().strict(true).build();
+
+        var ex = assertThrows(IllegalStateException.class, () -> strictValidator.validate(new TestStrict()));
+        assertEquals("AnyOf annotation can be only with String type. Problem with: exception", ex.getMessage());
+    }
+
+    @Test
+    void patternTest() {
+
+        @Constrained
+        class TestPattern {
+            @Pattern("[a-z0-9_]{3,8}")
+            private final String login;
+            @Pattern(value = "hello", flags = java.util.regex.Pattern.CASE_INSENSITIVE)
+            private final String greeting;
+            private final List<@Pattern("(\\d{3})-\\d{4}") String> phones;
+
+            TestPattern(String login, String greeting, List<String> phones) {
+                this.login = login;
+                this.greeting = greeting;
+                this.phones = phones;
+            }
+        }
+
+        assertTrue(validator.validate(new TestPattern("user_1", "HeLLo", List.of("555-1234"))).isEmpty());
+
+        var errors = validator.validate(new TestPattern("Us", "hi", Arrays.asList("555-1234", null, "5551234")));
+        Set<ValidationError> expectedErrors = new LinkedHashSet<>();
+        expectedErrors.add(new ServiceError("login", "Must match [a-z0-9_]{3,8}", "Us"));
+        expectedErrors.add(new ServiceError("greeting", "Must match hello", "hi"));
+        expectedErrors.add(new ServiceError("phones[2]", "Must match (\\d{3})-\\d{4}", "5551234"));
+        assertTrue(equalsErrors(expectedErrors, errors));
+    }
+
+    @Test
+    void patternFastPaths() {
+        var regexes = List.of("abc", "^a\\.b$", "abc.*", ".*", "", "[a-z]+", "[^@\\s]{2,}", "\\d{3}",
+                "[a-c-]*", "\\w?", "[\\]x]{1,2}", "a\\$", "[abcde\\w]+", "[abcdefg\\s\\w\\d]*");
+        var values = List.of("", "abc", "a.b", "axb", "abcdef", "abc\n", "ab", "a-c", "12", "123", "1234",
+                "x", "]]", "a$", "a b", "\uD83D\uDE00\uD83D\uDE00", "\u00e9\u00e9");
+        for (var regex : regexes) {
+            var fastPath = PatternValidator.fastPath(regex, null);
+            assertNotNull(fastPath, regex);
+            for (var value : values) {
+                assertEquals(java.util.regex.Pattern.matches(regex, value), fastPath.validateValue(value, null, null) == null, regex + " " + value);
+            }
+        }
+        assertNull(PatternValidator.fastPath("a|b", null));
+        assertNull(PatternValidator.fastPath("[a-z&&[^x]]+", null));
+        assertNull(PatternValidator.fastPath("\\p{L}+", null));
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE_USE)
+    @interface Even {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE_USE)
+    @interface Odd {
+    }
+
+    static class ParityValidator implements FormValidator {
+        private final int remainder;
+
+        ParityValidator(int remainder) {
+            this.remainder = remainder;
+        }
+
+        @Override
+        public ValidationError validateValue(Object fieldVal, Annotation annotation, ValidationPath path) {
+            if (fieldVal != null && Math.abs(((Number) fieldVal).longValue() % 2) != remainder)
+                return new ServiceError(path, remainder == 0 ? "Must be even" : "Must be odd", fieldVal);
+            return null;
+        }
+    }
+
+    public static class EvenProvider implements ConstraintProvider {
+        @Override
+        public void registerConstraints(Validators.Builder registry) {
+            registry.register(Even.class, new ParityValidator(0));
+        }
+    }
+
+    @Constrained
+    class Parity {
+        private @Even int even;
+        private @Odd int odd;
+        private List<@Even Long> values;
+
+        Parity(int even, int odd, List<Long> values) {
+            this.even = even;
+            this.odd = odd;
+            this.values = values;
+        }
+    }
+
+    @Test
+    void customConstraints() {
+        var parity = new Parity(3, 4, List.of(2L, 5L));
+
+        var discovered = validator.validate(parity);
+        var registered = ServiceValidator.builder()
+                .validators(Validators.builder().register(Odd.class, new ParityValidator(1)).build())
+                .build()
+                .validate(parity);
+
+        Set<ValidationError> discoveredErrors = new LinkedHashSet<>();
+        discoveredErrors.add(new ServiceError("even", "Must be even", 3));
+        discoveredErrors.add(new ServiceError("values[1]", "Must be even", 5L));
+        assertTrue(equalsErrors(discovered, discoveredErrors));
+
+        Set<ValidationError> registeredErrors = new LinkedHashSet<>();
+        registeredErrors.add(new ServiceError("odd", "Must be odd", 4));
+        assertTrue(equalsErrors(registered, registeredErrors));
+
+        var registry = Validators.defaults();
+        assertEquals(Even.class, registry.getAnnotationType(registry.getId(Even.class)));
+        assertEquals(-1, registry.getId(Odd.class));
+    }
+}